@@ -0,0 +1,63 @@
+package local.example.restaurant_reservation.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and outcomes for one endpoint. Latencies are kept in full and sorted once for the
+ * report, which is fine for runs of a few million requests.
+ */
+final class EndpointStats {
+
+    private final String name;
+    private long[] latencies = new long[1024];
+    private int count;
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    // A status of -1 means the request failed without a response
+    void record(long latencyNanos, int status) {
+        if (status == 409) {
+            conflicts.incrementAndGet();
+        } else if (status < 200 || status >= 300) {
+            errors.incrementAndGet();
+        }
+        synchronized (this) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+
+    synchronized Snapshot snapshot(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Snapshot(name, count, count / seconds, percentile(sorted, 0.50), percentile(sorted, 0.90),
+                percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1], conflicts.get(),
+                errors.get());
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+    }
+
+    record Snapshot(String name, long requests, double perSecond, long p50, long p90, long p99, long max,
+            long conflicts, long errors) {
+
+        double conflictRate() {
+            return requests == 0 ? 0 : (double) conflicts / requests;
+        }
+    }
+}
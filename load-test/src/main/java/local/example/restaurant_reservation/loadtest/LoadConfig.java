@@ -0,0 +1,78 @@
+package local.example.restaurant_reservation.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Load run settings, parsed from {@code key=value} arguments. Every key has a default, so the
+ * driver runs against a local service with no arguments at all.
+ *
+ * @param baseUrl service root
+ * @param restaurants restaurants seeded for the regular mix
+ * @param tablesPerRestaurant capacity of each seeded restaurant
+ * @param days booking horizon, counted from tomorrow
+ * @param rate requests per second issued by the regular mix
+ * @param duration length of the measured run
+ * @param mix relative weight of each operation in the regular mix
+ * @param guests size of the repeat-guest pool; half the bookings come from it
+ * @param rushEvery pause between release-rush bursts, or zero to disable them
+ * @param rushSize concurrent bookings fired at the rush slot per burst
+ * @param rushTables capacity of the rush restaurant
+ * @param seed random seed for the mix, slots and guests
+ */
+record LoadConfig(URI baseUrl, int restaurants, int tablesPerRestaurant, int days, int rate,
+        Duration duration, Map<Operation, Integer> mix, int guests, Duration rushEvery, int rushSize,
+        int rushTables, long seed) {
+
+    private static final Set<String> KEYS = Set.of("baseUrl", "restaurants", "tablesPerRestaurant", "days",
+            "rate", "duration", "mix", "guests", "rushEvery", "rushSize", "rushTables", "seed");
+
+    static LoadConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadConfig config = new LoadConfig(
+                URI.create(values.getOrDefault("baseUrl", "http://localhost:8080")),
+                Integer.parseInt(values.getOrDefault("restaurants", "20")),
+                Integer.parseInt(values.getOrDefault("tablesPerRestaurant", "20")),
+                Integer.parseInt(values.getOrDefault("days", "7")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                parseMix(values.getOrDefault("mix", "availability:50,listing:20,booking:20,status:10")),
+                Integer.parseInt(values.getOrDefault("guests", "1000")),
+                Duration.parse(values.getOrDefault("rushEvery", "PT20S")),
+                Integer.parseInt(values.getOrDefault("rushSize", "200")),
+                Integer.parseInt(values.getOrDefault("rushTables", "10")),
+                Long.parseLong(values.getOrDefault("seed", "42")));
+        values.keySet().removeAll(KEYS);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown settings " + values.keySet());
+        }
+        return config;
+    }
+
+    // e.g. "availability:50,listing:20,booking:20,status:10"
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.split(":");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    enum Operation {
+        AVAILABILITY, LISTING, BOOKING, STATUS
+    }
+}
@@ -0,0 +1,248 @@
+package local.example.restaurant_reservation.loadtest;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import local.example.restaurant_reservation.loadtest.LoadConfig.Operation;
+import local.example.restaurant_reservation.loadtest.ServiceClient.Response;
+
+/**
+ * Seeds restaurants and bookings, then drives the service with an open-loop request mix on
+ * virtual threads. Requests are issued on a fixed schedule whatever the response times, and
+ * latency is measured from the scheduled start, so a stalled service shows up in the
+ * percentiles instead of silently lowering the load.
+ *
+ * <p>On top of the mix, a release rush periodically fires a burst of concurrent bookings at a
+ * single slot of a small restaurant, the pattern behind most capacity conflicts.
+ *
+ * <pre>
+ * ./gradlew :load-test:run --args="rate=500 duration=PT2M rushSize=300"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int OPEN_HOUR = 10;
+    private static final int CLOSE_HOUR = 22;
+    private static final int RUSH_HOUR = 19;
+    private static final int SEED_BOOKINGS_PER_RESTAURANT = 5;
+    private static final String BOOKING_ENDPOINT = "POST /reservations";
+    private static final String RUSH_BOOKING_ENDPOINT = "POST /reservations (rush)";
+
+    private final LoadConfig config;
+    private final ServiceClient client;
+    // Keeps emails and phones unique across runs against the same database
+    private final long runId = System.currentTimeMillis();
+    private final LocalDate firstDay = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+    private final AtomicLong newGuests = new AtomicLong();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final List<Long> restaurantIds = new ArrayList<>();
+    private final List<Long> reservationIds = new ArrayList<>();
+    private long rushRestaurantId;
+
+    private LoadTest(LoadConfig config) {
+        this.config = config;
+        this.client = new ServiceClient(config.baseUrl());
+    }
+
+    public static void main(String[] args) {
+        LoadTest loadTest = new LoadTest(LoadConfig.parse(args));
+        loadTest.seed();
+        double seconds = loadTest.run();
+        loadTest.report(seconds);
+    }
+
+    private void seed() {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        for (int i = 0; i < config.restaurants(); i++) {
+            restaurantIds.add(createRestaurant("Load Test %d-%d".formatted(runId, i),
+                    config.tablesPerRestaurant()));
+        }
+        rushRestaurantId = createRestaurant("Load Test %d-rush".formatted(runId), config.rushTables());
+        for (long restaurantId : restaurantIds) {
+            for (int i = 0; i < SEED_BOOKINGS_PER_RESTAURANT; i++) {
+                Response response = client.post("/reservations", bookingJson(restaurantId, randomSlot(random),
+                        1 + random.nextInt(2), random));
+                if (response.isSuccess()) {
+                    reservationIds.add(response.id());
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "Seeded %d restaurants and %d reservations%n", restaurantIds.size() + 1,
+                reservationIds.size());
+    }
+
+    private long createRestaurant(String name, int totalTables) {
+        Response response = client.post("/restaurants", """
+                {"name":"%s","address":"1 Load St","phone":"000","openTime":"%02d:00","closeTime":"%02d:00",\
+                "totalTables":%d}""".formatted(name, OPEN_HOUR, CLOSE_HOUR, totalTables));
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Could not seed restaurant: %d %s".formatted(response.status(),
+                    response.body()));
+        }
+        return response.id();
+    }
+
+    private double run() {
+        SplittableRandom random = new SplittableRandom(config.seed() + 1);
+        List<Operation> weighted = new ArrayList<>();
+        config.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long end = start + config.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (!config.rushEvery().isZero()) {
+                executor.submit(() -> rushes(end));
+            }
+            for (long i = 0; ; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                if (scheduledAt >= end) {
+                    break;
+                }
+                LockSupport.parkNanos(scheduledAt - System.nanoTime());
+                Operation operation = weighted.get(random.nextInt(weighted.size()));
+                SplittableRandom taskRandom = random.split();
+                executor.submit(() -> execute(operation, scheduledAt, taskRandom));
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void execute(Operation operation, long scheduledAt, SplittableRandom random) {
+        long restaurantId = restaurantIds.get(random.nextInt(restaurantIds.size()));
+        LocalDate day = firstDay.plusDays(random.nextInt(config.days()));
+        switch (operation) {
+            case AVAILABILITY -> timed("GET /restaurants/{id}/availability", scheduledAt,
+                    () -> client.get("/restaurants/%d/availability?date=%s".formatted(restaurantId, day)));
+            case LISTING -> {
+                if (random.nextInt(4) == 0) {
+                    timed("GET /restaurants", scheduledAt, () -> client.get("/restaurants?cursor=&size=20"));
+                } else {
+                    timed("GET /restaurants/{id}/reservations", scheduledAt, () -> client.get(
+                            "/restaurants/%d/reservations?date=%s&cursor=&size=20".formatted(restaurantId, day)));
+                }
+            }
+            case BOOKING -> {
+                Response response = timed(BOOKING_ENDPOINT, scheduledAt, () -> client.post("/reservations",
+                        bookingJson(restaurantId, randomSlot(random), 1 + random.nextInt(4), random)));
+                if (response.isSuccess()) {
+                    rememberReservation(response.id());
+                }
+            }
+            case STATUS -> {
+                Long reservationId = randomReservation(random);
+                if (reservationId != null) {
+                    String status = random.nextInt(3) == 0 ? "CANCELLED" : "CONFIRMED";
+                    timed("POST /reservations/{id}/status", scheduledAt, () -> client.post(
+                            "/reservations/%d/status".formatted(reservationId),
+                            "{\"status\":\"%s\"}".formatted(status)));
+                }
+            }
+        }
+    }
+
+    // Each burst opens a new day's rush slot, like a restaurant releasing its next booking window
+    private void rushes(long end) {
+        SplittableRandom random = new SplittableRandom(config.seed() + 2);
+        long pauseNanos = config.rushEvery().toNanos();
+        // Bursts get their own executor so the main loop can shut its executor down independently
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int burst = 0; System.nanoTime() + pauseNanos < end; burst++) {
+                LockSupport.parkNanos(pauseNanos);
+                String startsAt = firstDay.plusDays(burst).atTime(RUSH_HOUR, 0).atOffset(ZoneOffset.UTC)
+                        .toString();
+                CountDownLatch gate = new CountDownLatch(1);
+                for (int i = 0; i < config.rushSize(); i++) {
+                    String body = bookingJson(rushRestaurantId, startsAt, 1, random.split());
+                    executor.submit(() -> {
+                        gate.await();
+                        Response response = timed(RUSH_BOOKING_ENDPOINT, System.nanoTime(),
+                                () -> client.post("/reservations", body));
+                        if (response.isSuccess()) {
+                            rememberReservation(response.id());
+                        }
+                        return null;
+                    });
+                }
+                gate.countDown();
+            }
+        }
+    }
+
+    private Response timed(String endpoint, long scheduledAt, Supplier<Response> call) {
+        Response response = call.get();
+        stats.computeIfAbsent(endpoint, EndpointStats::new).record(System.nanoTime() - scheduledAt,
+                response.status());
+        return response;
+    }
+
+    // Half the bookings come from a fixed pool of repeat guests, the rest from first-time guests
+    private String bookingJson(long restaurantId, String startsAt, int tableCount, SplittableRandom random) {
+        String guest = random.nextBoolean()
+                ? "%d-r%d".formatted(runId, random.nextInt(config.guests()))
+                : "%d-n%d".formatted(runId, newGuests.incrementAndGet());
+        return """
+                {"restaurantId":%d,"customerName":"Guest %s","customerPhone":"+%s",\
+                "customerEmail":"guest-%s@load.test","tableCount":%d,"startsAt":"%s"}"""
+                .formatted(restaurantId, guest, guest, guest, tableCount, startsAt);
+    }
+
+    private String randomSlot(SplittableRandom random) {
+        return firstDay.plusDays(random.nextInt(config.days()))
+                .atTime(OPEN_HOUR + random.nextInt(CLOSE_HOUR - OPEN_HOUR), 0)
+                .atOffset(ZoneOffset.UTC).toString();
+    }
+
+    private void rememberReservation(long id) {
+        synchronized (reservationIds) {
+            reservationIds.add(id);
+        }
+    }
+
+    private Long randomReservation(SplittableRandom random) {
+        synchronized (reservationIds) {
+            return reservationIds.isEmpty() ? null : reservationIds.get(random.nextInt(reservationIds.size()));
+        }
+    }
+
+    private void report(double seconds) {
+        System.out.printf(Locale.ROOT, "%nRan %.1f s at a target of %d req/s%n%n", seconds, config.rate());
+        System.out.printf(Locale.ROOT, "%-38s %9s %9s %9s %9s %9s %9s %7s %7s%n", "endpoint", "requests", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "max ms", "409", "errors");
+        stats.values().stream()
+                .map(endpoint -> endpoint.snapshot(seconds))
+                .sorted(Comparator.comparing(EndpointStats.Snapshot::name))
+                .forEach(s -> System.out.printf(Locale.ROOT, "%-38s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d %7d%n",
+                        s.name(), s.requests(), s.perSecond(), millis(s.p50()), millis(s.p90()), millis(s.p99()),
+                        millis(s.max()), s.conflicts(), s.errors()));
+        System.out.println();
+        stats.values().stream()
+                .filter(endpoint -> endpoint.name().equals(BOOKING_ENDPOINT)
+                        || endpoint.name().equals(RUSH_BOOKING_ENDPOINT))
+                .map(endpoint -> endpoint.snapshot(seconds))
+                .sorted(Comparator.comparing(EndpointStats.Snapshot::name))
+                .forEach(s -> System.out.printf(Locale.ROOT, "Capacity rejections (409) for %s: %.1f%%%n",
+                        s.name(), s.conflictRate() * 100));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,70 @@
+package local.example.restaurant_reservation.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin JSON-over-HTTP client for the endpoints the driver exercises. Bodies are built and read
+ * with string handling only, which keeps the driver free of dependencies.
+ */
+final class ServiceClient {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final URI baseUrl;
+    private final HttpClient httpClient;
+
+    ServiceClient(URI baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    Response get(String path) {
+        return send(HttpRequest.newBuilder(baseUrl.resolve(path)).GET());
+    }
+
+    Response post(String path, String json) {
+        return send(HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private Response send(HttpRequest.Builder request) {
+        try {
+            HttpResponse<String> response = httpClient.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException ex) {
+            return new Response(-1, ex.toString());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new Response(-1, ex.toString());
+        }
+    }
+
+    record Response(int status, String body) {
+
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        // The first "id" in the body, which is the top-level one for the service's responses
+        long id() {
+            Matcher matcher = ID.matcher(body);
+            if (!matcher.find()) {
+                throw new IllegalStateException("No id in response " + body);
+            }
+            return Long.parseLong(matcher.group(1));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package local.example.restaurant_reservation;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import local.example.restaurant_reservation.model.Reservation;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.model.Restaurant;
+
+/**
+ * Deterministic fixtures shared by the benchmarks, so every run measures the same data.
+ */
+public final class BenchmarkData {
+
+    public static final LocalDate DATE = LocalDate.of(2030, 1, 1);
+
+    private static final ReservationStatusEnum[] STATUSES = ReservationStatusEnum.values();
+
+    private BenchmarkData() {
+    }
+
+    // Opening hours are centred on noon so the hourly slot loop never wraps past midnight
+    public static Restaurant restaurant(int openingHours) {
+        LocalTime openTime = LocalTime.NOON.minusHours(openingHours / 2);
+        return Restaurant.builder().id(1L).name("Benchmark Bistro").address("Main St 1").phone("000")
+                .openTime(openTime).closeTime(openTime.plusHours(openingHours)).totalTables(40)
+                .createdAt(DATE.minusYears(1).atStartOfDay().atOffset(ZoneOffset.UTC)).build();
+    }
+
+    // Reservations spread over the restaurant's opening hours on DATE, with a few minutes of jitter
+    public static List<Reservation> reservations(Restaurant restaurant, int count) {
+        Random random = new Random(42);
+        int openingHours = restaurant.getCloseTime().getHour() - restaurant.getOpenTime().getHour();
+        OffsetDateTime open = DATE.atTime(restaurant.getOpenTime()).atOffset(ZoneOffset.UTC);
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OffsetDateTime startsAt = open.plusHours(random.nextInt(openingHours)).plusMinutes(random.nextInt(60));
+            reservations.add(Reservation.builder().id((long) i + 1).restaurantId(restaurant.getId())
+                    .customerId((long) random.nextInt(10_000)).tableCount(1 + random.nextInt(4))
+                    .startsAt(startsAt).status(STATUSES[random.nextInt(STATUSES.length)])
+                    .createdAt(startsAt.minusDays(7)).version(0L).build());
+        }
+        return reservations;
+    }
+}
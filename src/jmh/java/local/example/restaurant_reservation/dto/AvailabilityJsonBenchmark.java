@@ -0,0 +1,56 @@
+package local.example.restaurant_reservation.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import local.example.restaurant_reservation.BenchmarkData;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto.SlotAvailability;
+import local.example.restaurant_reservation.model.Restaurant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Jackson serialization of one day's availability, configured the way Spring Boot configures
+ * its ObjectMapper (JSR-310 module, ISO dates rather than timestamps).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AvailabilityJsonBenchmark {
+
+    @Param({ "6", "12", "18" })
+    private int openingHours;
+
+    private ObjectMapper objectMapper;
+    private AvailabilityResponseDto availability;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        Restaurant restaurant = BenchmarkData.restaurant(openingHours);
+        List<SlotAvailability> slots = new ArrayList<>();
+        for (int hour = 0; hour < openingHours; hour++) {
+            slots.add(SlotAvailability.builder().startTime(restaurant.getOpenTime().plusHours(hour))
+                    .availableTables(restaurant.getTotalTables() - hour).build());
+        }
+        availability = AvailabilityResponseDto.builder().restaurantId(restaurant.getId())
+                .date(BenchmarkData.DATE).slots(slots).build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(availability);
+    }
+}
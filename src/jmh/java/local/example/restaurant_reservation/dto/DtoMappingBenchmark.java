@@ -0,0 +1,48 @@
+package local.example.restaurant_reservation.dto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import local.example.restaurant_reservation.BenchmarkData;
+import local.example.restaurant_reservation.model.Reservation;
+import local.example.restaurant_reservation.model.Restaurant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Entity to response DTO mapping: a day's reservation list as returned by the listing endpoints,
+ * and a single restaurant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int reservationsPerDay;
+
+    private Restaurant restaurant;
+    private List<Reservation> reservations;
+
+    @Setup
+    public void setUp() {
+        restaurant = BenchmarkData.restaurant(12);
+        reservations = BenchmarkData.reservations(restaurant, reservationsPerDay);
+    }
+
+    @Benchmark
+    public List<ReservationResponseDto> reservationFromEntity() {
+        return reservations.stream().map(ReservationResponseDto::fromEntity).toList();
+    }
+
+    @Benchmark
+    public RestaurantResponseDto restaurantFromEntity() {
+        return RestaurantResponseDto.fromEntity(restaurant);
+    }
+}
@@ -0,0 +1,57 @@
+package local.example.restaurant_reservation.repository;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * A single-row, in-memory {@link ResultSet} so mapper benchmarks measure mapping rather than the
+ * driver or the network. Supports only the accessors the mappers call.
+ */
+final class FakeResultSet {
+
+    private FakeResultSet() {
+    }
+
+    static ResultSet of(String[] labels, Object[] values) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                ResultSetMetaData.class.getClassLoader(), new Class<?>[] { ResultSetMetaData.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> labels.length;
+                    case "getColumnLabel", "getColumnName" -> labels[(int) args[0] - 1];
+                    default -> throw new SQLFeatureNotSupportedException(method.getName());
+                });
+        boolean[] lastWasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getMetaData")) {
+                        return metaData;
+                    }
+                    if (method.getName().equals("wasNull")) {
+                        return lastWasNull[0];
+                    }
+                    if (method.getName().equals("getRow")) {
+                        return 1;
+                    }
+                    if (args == null || !(args[0] instanceof Integer index)) {
+                        throw new SQLFeatureNotSupportedException(method.getName());
+                    }
+                    Object value = values[index - 1];
+                    lastWasNull[0] = value == null;
+                    return switch (method.getName()) {
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                        case "getString" -> value == null ? null : value.toString();
+                        case "getObject" -> {
+                            if (args.length == 1 || value == null || ((Class<?>) args[1]).isInstance(value)) {
+                                yield value;
+                            }
+                            throw new SQLException("Cannot convert to " + args[1]);
+                        }
+                        default -> throw new SQLFeatureNotSupportedException(method.getName());
+                    };
+                });
+    }
+}
@@ -0,0 +1,80 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import local.example.restaurant_reservation.model.Reservation;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Cost of mapping one query's rows to {@link Reservation}: a fresh {@link BeanPropertyRowMapper}
+ * per query (the previous repository code) against the shared positional mapper, plus the
+ * restaurant mapper for reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RowMapperBenchmark {
+
+    @Param({ "1", "100" })
+    private int rowsPerQuery;
+
+    private ResultSet selectStarRow;
+    private ResultSet columnListRow;
+    private ResultSet restaurantRow;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime startsAt = OffsetDateTime.of(2030, 1, 1, 19, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime createdAt = startsAt.minusDays(3);
+        selectStarRow = FakeResultSet.of(
+                new String[] { "id", "restaurant_id", "customer_id", "table_count", "starts_at", "status",
+                        "created_at", "version" },
+                new Object[] { 1L, 2L, 3L, 4, startsAt, ReservationStatusEnum.CONFIRMED.name(), createdAt, 0L });
+        columnListRow = FakeResultSet.of(
+                new String[] { "id", "restaurant_id", "customer_id", "table_count", "starts_at", "status_ordinal",
+                        "created_at", "version" },
+                new Object[] { 1L, 2L, 3L, 4, startsAt, ReservationStatusEnum.CONFIRMED.ordinal(), createdAt, 0L });
+        restaurantRow = FakeResultSet.of(
+                new String[] { "id", "name", "address", "phone", "open_time", "close_time", "total_tables",
+                        "created_at" },
+                new Object[] { 2L, "Benchmark Bistro", "Main St 1", "000", LocalTime.of(9, 0), LocalTime.of(22, 0),
+                        40, createdAt });
+    }
+
+    @Benchmark
+    public void beanPropertyRowMapper(Blackhole blackhole) throws SQLException {
+        map(new BeanPropertyRowMapper<>(Reservation.class), selectStarRow, blackhole);
+    }
+
+    @Benchmark
+    public void reservationRowMapper(Blackhole blackhole) throws SQLException {
+        map(ReservationRowMapper.INSTANCE, columnListRow, blackhole);
+    }
+
+    @Benchmark
+    public void restaurantRowMapper(Blackhole blackhole) throws SQLException {
+        map(RestaurantRowMapper.INSTANCE, restaurantRow, blackhole);
+    }
+
+    private <T> void map(RowMapper<T> mapper, ResultSet rs, Blackhole blackhole) throws SQLException {
+        for (int i = 0; i < rowsPerQuery; i++) {
+            blackhole.consume(mapper.mapRow(rs, i));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package local.example.restaurant_reservation.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import local.example.restaurant_reservation.BenchmarkData;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto.SlotAvailability;
+import local.example.restaurant_reservation.model.Reservation;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.model.Restaurant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The in-process half of an availability request: grouping one day's reservations into reserved
+ * tables per hour, and turning that map into hourly slots. The database does the grouping in
+ * production; {@link #groupByHour} keeps the Java cost it replaced visible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AvailabilityBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int reservationsPerDay;
+
+    @Param({ "6", "12", "18" })
+    private int openingHours;
+
+    private Restaurant restaurant;
+    private List<Reservation> reservations;
+    private Map<LocalDateTime, Integer> reservedByHour;
+
+    @Setup
+    public void setUp() {
+        restaurant = BenchmarkData.restaurant(openingHours);
+        reservations = BenchmarkData.reservations(restaurant, reservationsPerDay);
+        reservedByHour = groupByHour();
+    }
+
+    @Benchmark
+    public Map<LocalDateTime, Integer> groupByHour() {
+        return reservations.stream()
+                .filter(r -> r.getStatus() != ReservationStatusEnum.CANCELLED)
+                .collect(Collectors.groupingBy(
+                        r -> r.getStartsAt().toLocalDateTime().truncatedTo(ChronoUnit.HOURS),
+                        Collectors.summingInt(Reservation::getTableCount)));
+    }
+
+    @Benchmark
+    public List<SlotAvailability> buildSlots() {
+        return AvailabilityService.buildSlots(restaurant, BenchmarkData.DATE, reservedByHour);
+    }
+}
@@ -2,8 +2,10 @@ package local.example.restaurant_reservation;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RestaurantReservationApplication {
 
     public static void main(String[] args) {
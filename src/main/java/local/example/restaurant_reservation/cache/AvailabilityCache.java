@@ -0,0 +1,92 @@
+package local.example.restaurant_reservation.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class AvailabilityCache {
+
+    private final PrimaryReads primaryReads;
+    private final Cache<Key, AvailabilityResponseDto> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AvailabilityCache(PrimaryReads primaryReads, MeterRegistry meterRegistry,
+            @Value("${reservation.availability-cache.maximum-size:10000}") long maximumSize,
+            @Value("${reservation.availability-cache.ttl:PT30S}") Duration ttl) {
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "availability");
+    }
+
+    public AvailabilityResponseDto get(Long restaurantId, LocalDate date,
+            Supplier<AvailabilityResponseDto> loader) {
+        // The loader runs inside the cache's per-key compute, so an invalidation issued after a
+        // commit waits for an in-flight load and then discards it instead of racing with it
+        return cache.get(new Key(restaurantId, date), key -> primaryReads.load(loader));
+    }
+
+    public List<AvailabilityResponseDto> getAll(Long restaurantId, List<LocalDate> dates,
+            Function<List<LocalDate>, Map<LocalDate, AvailabilityResponseDto>> loader) {
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date : dates) {
+            if (cache.getIfPresent(new Key(restaurantId, date)) == null) {
+                missing.add(date);
+            }
+        }
+        Map<LocalDate, AvailabilityResponseDto> loaded = Map.of();
+        if (!missing.isEmpty()) {
+            // A bulk load runs outside the per-key compute, so its results are only cached when no
+            // invalidation started while it was running
+            long generation = invalidations.get();
+            loaded = primaryReads.load(() -> loader.apply(missing));
+            loaded.forEach((date, availability) -> cache.asMap().compute(new Key(restaurantId, date),
+                    (key, current) -> invalidations.get() == generation ? availability : current));
+        }
+        List<AvailabilityResponseDto> result = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            AvailabilityResponseDto availability = loaded.get(date);
+            result.add(availability != null ? availability : get(restaurantId, date,
+                    () -> loader.apply(List.of(date)).get(date)));
+        }
+        return result;
+    }
+
+    @Order(ResourceVersions.INVALIDATION_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.invalidate(new Key(event.restaurantId(), event.date()));
+    }
+
+    @Order(ResourceVersions.INVALIDATION_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.restaurantId().equals(event.restaurantId()));
+    }
+
+    private record Key(Long restaurantId, LocalDate date) {
+    }
+}
@@ -0,0 +1,145 @@
+package local.example.restaurant_reservation.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Per hour slot, the free table count of every restaurant open at that hour, ordered by most free
+ * tables first. A slot is built with one aggregate on first search and then kept current from
+ * reservation and restaurant change events, so a search only walks the head of the ordered set.
+ * Events re-read just the changed restaurant, outside any cache lock; each read takes a ticket so
+ * an older read finishing late cannot overwrite a newer one.
+ */
+@Component
+public class AvailabilitySearchIndex {
+
+    private static final Comparator<Entry> MOST_FREE_FIRST = Comparator.comparingInt(Entry::freeTables)
+            .reversed()
+            .thenComparingLong(Entry::restaurantId);
+
+    private final RestaurantRepository restaurantRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Instant, SlotIndex> slots;
+    private final AtomicLong readTickets = new AtomicLong();
+
+    public AvailabilitySearchIndex(RestaurantRepository restaurantRepository, PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.search-index.maximum-slots:5000}") long maximumSlots,
+            @Value("${reservation.search-index.ttl:PT10M}") Duration ttl) {
+        this.restaurantRepository = restaurantRepository;
+        this.primaryReads = primaryReads;
+        this.slots = Caffeine.newBuilder()
+                .maximumSize(maximumSlots)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, slots, "availability-search");
+    }
+
+    public List<Entry> search(Instant slot, int minFreeTables, Entry after, int limit) {
+        SlotIndex index = slots.get(slot, this::build);
+        NavigableSet<Entry> candidates = after == null ? index.byFree : index.byFree.tailSet(after, false);
+        List<Entry> result = new ArrayList<>(limit);
+        for (Entry entry : candidates) {
+            if (entry.freeTables() < minFreeTables || result.size() == limit) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    @Order(ResourceVersions.INVALIDATION_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Instant slot = event.startsAt().toInstant().truncatedTo(ChronoUnit.HOURS);
+        SlotIndex index = indexed(slot);
+        if (index == null) {
+            return;
+        }
+        long ticket = readTickets.incrementAndGet();
+        Integer freeTables = primaryReads.load(() -> restaurantRepository.findFreeTablesAt(slot,
+                event.restaurantId())).get(event.restaurantId());
+        index.put(event.restaurantId(), freeTables, ticket);
+    }
+
+    @Order(ResourceVersions.INVALIDATION_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        // Capacity or opening hours may have changed the restaurant's entry in any indexed slot
+        Map<Instant, SlotIndex> indexes = new HashMap<>();
+        for (Instant slot : List.copyOf(slots.asMap().keySet())) {
+            SlotIndex index = indexed(slot);
+            if (index != null) {
+                indexes.put(slot, index);
+            }
+        }
+        if (indexes.isEmpty()) {
+            return;
+        }
+        long ticket = readTickets.incrementAndGet();
+        Map<Instant, Integer> freeTables = primaryReads.load(() -> restaurantRepository.findFreeTablesOf(
+                event.restaurantId(), indexes.keySet()));
+        indexes.forEach((slot, index) -> index.put(event.restaurantId(), freeTables.get(slot), ticket));
+    }
+
+    // The slot's index, once a build already in flight has finished; that build may predate the change
+    private SlotIndex indexed(Instant slot) {
+        return slots.get(slot, absent -> null);
+    }
+
+    private SlotIndex build(Instant slot) {
+        SlotIndex index = new SlotIndex();
+        long ticket = readTickets.incrementAndGet();
+        primaryReads.load(() -> restaurantRepository.findFreeTablesAt(slot, null))
+                .forEach((restaurantId, freeTables) -> index.put(restaurantId, freeTables, ticket));
+        return index;
+    }
+
+    public record Entry(int freeTables, long restaurantId) {
+    }
+
+    private static final class SlotIndex {
+        private final NavigableSet<Entry> byFree = new ConcurrentSkipListSet<>(MOST_FREE_FIRST);
+        private final Map<Long, Entry> byRestaurant = new HashMap<>();
+        private final Map<Long, Long> appliedTickets = new HashMap<>();
+
+        private synchronized void put(Long restaurantId, Integer freeTables, long ticket) {
+            Long applied = appliedTickets.get(restaurantId);
+            if (applied != null && applied > ticket) {
+                return;
+            }
+            appliedTickets.put(restaurantId, ticket);
+            Entry previous = freeTables == null
+                    ? byRestaurant.remove(restaurantId)
+                    : byRestaurant.put(restaurantId, new Entry(freeTables, restaurantId));
+            if (previous != null) {
+                byFree.remove(previous);
+            }
+            if (freeTables != null) {
+                byFree.add(byRestaurant.get(restaurantId));
+            }
+        }
+    }
+}
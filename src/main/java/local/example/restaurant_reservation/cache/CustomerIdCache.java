@@ -0,0 +1,60 @@
+package local.example.restaurant_reservation.cache;
+
+import java.util.Locale;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import local.example.restaurant_reservation.model.Customer;
+import local.example.restaurant_reservation.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lower-cased email to customer id, so repeat guests skip the customer statement. Customers are
+ * never deleted or re-keyed, so entries only leave by size-based eviction.
+ */
+@Component
+public class CustomerIdCache {
+
+    private final CustomerRepository customerRepository;
+    private final Cache<String, Long> ids;
+
+    public CustomerIdCache(CustomerRepository customerRepository, MeterRegistry meterRegistry,
+            @Value("${reservation.customer-cache.maximum-size:100000}") long maximumSize) {
+        this.customerRepository = customerRepository;
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ids, "customer-id");
+    }
+
+    public Long findOrCreate(Customer customer) {
+        if (customer.getEmail() == null) {
+            return customerRepository.findOrCreate(customer);
+        }
+        String email = customer.getEmail().toLowerCase(Locale.ROOT);
+        Long id = ids.getIfPresent(email);
+        if (id != null) {
+            return id;
+        }
+        id = customerRepository.findOrCreate(customer);
+        // The row may have been inserted by this transaction; share it only once that insert commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long createdId = id;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.put(email, createdId);
+                }
+            });
+        } else {
+            ids.put(email, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,43 @@
+package local.example.restaurant_reservation.cache;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import local.example.restaurant_reservation.dto.ReservationResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Committed responses by Idempotency-Key, so a retry to the instance that served the original
+ * skips the database. Only committed results are put here, and a key's response never changes.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyCache(MeterRegistry meterRegistry,
+            @Value("${reservation.idempotency.cache.maximum-size:100000}") long maximumSize,
+            @Value("${reservation.idempotency.cache.ttl:PT10M}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    public Entry get(String idempotencyKey) {
+        return entries.getIfPresent(idempotencyKey);
+    }
+
+    public void put(String idempotencyKey, Entry entry) {
+        entries.put(idempotencyKey, entry);
+    }
+
+    public record Entry(String requestHash, ReservationResponseDto response) {
+    }
+}
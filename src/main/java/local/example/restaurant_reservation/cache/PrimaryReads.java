@@ -0,0 +1,35 @@
+package local.example.restaurant_reservation.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs cache loads in their own read-write transaction, so they read the primary even when the
+ * caller is in a read-only transaction routed to the replica. A shared entry loaded from a
+ * lagging replica right after an invalidation would otherwise serve pre-commit data to every
+ * client until it expires.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T load(Supplier<T> loader) {
+        // A read-write transaction is already on the primary; joining it avoids a second connection
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        return transactionTemplate.execute(status -> loader.get());
+    }
+}
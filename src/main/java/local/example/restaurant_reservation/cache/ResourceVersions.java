@@ -0,0 +1,93 @@
+package local.example.restaurant_reservation.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Change counters behind the ETags of the restaurant and availability resources. Every committed
+ * write to a restaurant or to one of its days records a new tick, so a tag can be checked without
+ * touching the database. Writes made on other instances are not seen here; tags also roll over
+ * every {@code max-staleness}, which bounds how long a poll can get a stale 304.
+ */
+@Component
+public class ResourceVersions {
+
+    // Cache listeners drop their entries before a tag moves on, so a new tag never labels a stale body
+    public static final int INVALIDATION_ORDER = 0;
+    private static final int BUMP_ORDER = INVALIDATION_ORDER + 1;
+
+    private final Cache<Key, Long> versions;
+    private final AtomicLong ticks = new AtomicLong();
+    // Highest tick dropped from the map; a key that is not present may have had any tick up to it
+    private final AtomicLong evictedFloor = new AtomicLong();
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final long maxStalenessMillis;
+    private final Clock clock;
+
+    @Autowired
+    public ResourceVersions(@Value("${reservation.etag.maximum-size:100000}") long maximumSize,
+            @Value("${reservation.etag.max-staleness:PT30S}") Duration maxStaleness) {
+        this(maximumSize, maxStaleness, Clock.systemUTC());
+    }
+
+    ResourceVersions(long maximumSize, Duration maxStaleness, Clock clock) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .<Key, Long>evictionListener((key, tick, cause) -> evictedFloor.accumulateAndGet(tick, Math::max))
+                .build();
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.clock = clock;
+    }
+
+    public String restaurantETag(Long restaurantId) {
+        return etag(version(new Key(restaurantId, null)));
+    }
+
+    // A day's availability also changes with the restaurant's hours and capacity
+    public String availabilityETag(Long restaurantId, LocalDate from, LocalDate to) {
+        long version = version(new Key(restaurantId, null));
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            version = Math.max(version, version(new Key(restaurantId, date)));
+        }
+        return etag(version);
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        versions.put(new Key(event.restaurantId(), event.date()), ticks.incrementAndGet());
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        versions.put(new Key(event.restaurantId(), null), ticks.incrementAndGet());
+    }
+
+    private long version(Key key) {
+        Long tick = versions.getIfPresent(key);
+        return tick != null ? tick : evictedFloor.get();
+    }
+
+    private String etag(long version) {
+        long window = maxStalenessMillis > 0 ? clock.millis() / maxStalenessMillis : 0;
+        return "\"%s-%d-%d\"".formatted(instanceId, window, version);
+    }
+
+    // A null date stands for the restaurant itself
+    private record Key(Long restaurantId, LocalDate date) {
+    }
+}
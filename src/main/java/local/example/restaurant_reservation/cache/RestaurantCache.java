@@ -0,0 +1,67 @@
+package local.example.restaurant_reservation.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class RestaurantCache {
+
+    private final RestaurantRepository restaurantRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, Snapshot> cache;
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public RestaurantCache(RestaurantRepository restaurantRepository, PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.restaurant-cache.maximum-size:10000}") long maximumSize,
+            @Value("${reservation.restaurant-cache.ttl:PT5M}") Duration ttl) {
+        this.restaurantRepository = restaurantRepository;
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "restaurant");
+    }
+
+    public Restaurant get(Long restaurantId) {
+        // Capture the version before loading so a concurrent update marks this load as stale
+        long version = version(restaurantId);
+        Snapshot snapshot = cache.getIfPresent(restaurantId);
+        if (snapshot == null || snapshot.version() != version) {
+            snapshot = new Snapshot(primaryReads.load(() -> restaurantRepository.findById(restaurantId)), version);
+            cache.put(restaurantId, snapshot);
+        }
+        return snapshot.restaurant().toBuilder().build();
+    }
+
+    public long version(Long restaurantId) {
+        AtomicLong version = versions.get(restaurantId);
+        return version == null ? 0 : version.get();
+    }
+
+    @Order(ResourceVersions.INVALIDATION_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        versions.computeIfAbsent(event.restaurantId(), id -> new AtomicLong()).incrementAndGet();
+        cache.invalidate(event.restaurantId());
+    }
+
+    private record Snapshot(Restaurant restaurant, long version) {
+    }
+}
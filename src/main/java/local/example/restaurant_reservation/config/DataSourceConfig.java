@@ -0,0 +1,67 @@
+package local.example.restaurant_reservation.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * The application DataSource is a lazy proxy over the primary pool: a transaction only takes a
+ * pooled connection once it runs a statement, so read-only transactions answered from a cache
+ * never touch the pool. When {@code reservation.replica.url} is set, read-only transactions
+ * run on a replica pool instead, except for clients inside their read-your-writes window.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConditionalOnProperty("reservation.replica.url")
+    @ConfigurationProperties("reservation.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(environment.getRequiredProperty("reservation.replica.url"))
+                .username(environment.getProperty("reservation.replica.username", properties.determineUsername()))
+                .password(environment.getProperty("reservation.replica.password", properties.determinePassword()))
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        replicaDataSource.ifAvailable(replica -> dataSource
+                .setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replica)));
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("reservation.replica.url")
+    ReadYourWritesFilter readYourWritesFilter(
+            @Value("${reservation.replica.read-your-writes:PT5S}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
@@ -0,0 +1,25 @@
+package local.example.restaurant_reservation.config;
+
+/**
+ * Marks the current thread's request as pinned to the primary, so its read-only transactions
+ * see the client's own recent writes rather than a lagging replica.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PINNED.remove();
+    }
+}
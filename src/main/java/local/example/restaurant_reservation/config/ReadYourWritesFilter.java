@@ -0,0 +1,77 @@
+package local.example.restaurant_reservation.config;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Gives each client a read-your-writes window after its own writes. A write request sets a
+ * cookie holding the window's end; requests that carry an unexpired cookie are pinned to the
+ * primary. The state lives with the client, so it holds across instances.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "reservation-rw-until";
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window) {
+        this(window, Clock.systemUTC());
+    }
+
+    ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return window.isZero();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        long now = clock.millis();
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            // Set before the chain runs; the response may be committed by the time it returns
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(window.toSeconds(), 1));
+            response.addCookie(cookie);
+        }
+        if (!withinWindow(request, now)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReadYourWrites.pin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static boolean withinWindow(HttpServletRequest request, long now) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > now;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package local.example.restaurant_reservation.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Read-only side of the application DataSource: the replica, or the primary while the current
+ * request is pinned by {@link ReadYourWrites}.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        initialize();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReadYourWrites.isPinned() ? PRIMARY : REPLICA;
+    }
+}
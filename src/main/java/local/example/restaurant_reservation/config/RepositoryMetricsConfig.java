@@ -0,0 +1,62 @@
+package local.example.restaurant_reservation.config;
+
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Times every public method of the {@code @Repository} beans as {@code reservation.repository},
+ * tagged by repository, method and outcome. The timer count doubles as the call counter, and
+ * {@code outcome=error} counts the calls that threw.
+ */
+@Configuration(proxyBeanMethods = false)
+public class RepositoryMetricsConfig {
+
+    @Bean
+    static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        // Resolved on first call so the post-processor does not pull the registry in early
+        return new RepositoryMetricsPostProcessor(SingletonSupplier.of(meterRegistry::getObject));
+    }
+
+    static class RepositoryMetricsPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        RepositoryMetricsPostProcessor(Supplier<MeterRegistry> meterRegistry) {
+            MethodInterceptor timing = invocation -> {
+                Class<?> repository = invocation.getMethod().getDeclaringClass();
+                if (repository == Object.class) {
+                    return invocation.proceed();
+                }
+                MeterRegistry registry = meterRegistry.get();
+                Timer.Sample sample = Timer.start(registry);
+                String outcome = "error";
+                try {
+                    Object result = invocation.proceed();
+                    outcome = "success";
+                    return result;
+                } finally {
+                    sample.stop(Timer.builder("reservation.repository")
+                            .description("Repository method calls")
+                            .tag("repository", repository.getSimpleName())
+                            .tag("method", invocation.getMethod().getName())
+                            .tag("outcome", outcome)
+                            .register(registry));
+                }
+            };
+            this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Repository.class, true),
+                    timing);
+            setProxyTargetClass(true);
+            setBeforeExistingAdvisors(true);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package local.example.restaurant_reservation.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Active when {@code spring.threads.virtual.enabled=true}. Boot then runs Tomcat requests,
+ * {@code @Async} work and scheduling on virtual threads; this adds the connection permit gate
+ * in front of the pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionPermitPostProcessor(Environment environment) {
+        Integer permits = environment.getProperty("reservation.jdbc.connection-permits", Integer.class);
+        Duration timeout = environment.getProperty("reservation.jdbc.permit-timeout", Duration.class,
+                Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Gate the pools themselves; proxies and routers in front of them share their gates
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                        && !(bean instanceof AbstractRoutingDataSource)) {
+                    // Default to one permit per pooled connection so waiting happens in the semaphore
+                    int poolPermits = permits != null ? permits
+                            : bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                    return new ConnectionPermitDataSource(dataSource, poolPermits, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
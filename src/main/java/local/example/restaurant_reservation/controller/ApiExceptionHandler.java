@@ -1,9 +1,14 @@
 package local.example.restaurant_reservation.controller;
 
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -18,9 +23,9 @@ public class ApiExceptionHandler {
         return new ApiError(ex.getMessage());
     }
 
-    @ExceptionHandler(DuplicateKeyException.class)
+    @ExceptionHandler({ DuplicateKeyException.class, OptimisticLockingFailureException.class })
     @ResponseStatus(HttpStatus.CONFLICT)
-    public ApiError handleConflict(DuplicateKeyException ex) {
+    public ApiError handleConflict(DataAccessException ex) {
         return new ApiError(ex.getMessage());
     }
 
@@ -30,6 +35,15 @@ public class ApiExceptionHandler {
         return new ApiError(ex.getMessage());
     }
 
+    // A connection that could not be had surfaces differently depending on where it was first
+    // needed: opening a transaction, or the first statement of a lazily connected one
+    @ExceptionHandler({ CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class,
+            TransientDataAccessResourceException.class })
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiError handleNoConnection(Exception ex) {
+        return new ApiError("Service is busy, retry later");
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<ApiError> handleResponseStatus(ResponseStatusException ex) {
         return ResponseEntity.status(ex.getStatusCode())
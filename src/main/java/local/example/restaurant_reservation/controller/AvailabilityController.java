@@ -3,28 +3,57 @@ package local.example.restaurant_reservation.controller;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
+import local.example.restaurant_reservation.service.AvailabilityBroadcaster;
 import local.example.restaurant_reservation.service.AvailabilityService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/restaurants/{restaurantId}/availability")
 public class AvailabilityController {
 
     private final AvailabilityService availabilityService;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
 
-    public AvailabilityController(AvailabilityService availabilityService) {
+    public AvailabilityController(AvailabilityService availabilityService,
+                                  AvailabilityBroadcaster availabilityBroadcaster) {
         this.availabilityService = availabilityService;
+        this.availabilityBroadcaster = availabilityBroadcaster;
     }
 
     @GetMapping
     public AvailabilityResponseDto getAvailability(@PathVariable Long restaurantId,
-                                                   @RequestParam @NotNull LocalDate date) {
+                                                   @RequestParam @NotNull LocalDate date,
+                                                   WebRequest request) {
+        if (request.checkNotModified(availabilityService.availabilityETag(restaurantId, date))) {
+            return null;
+        }
         return availabilityService.getAvailability(restaurantId, date);
     }
+
+    @GetMapping(params = { "from", "to" })
+    public List<AvailabilityResponseDto> getAvailabilityRange(@PathVariable Long restaurantId,
+                                                              @RequestParam LocalDate from,
+                                                              @RequestParam LocalDate to,
+                                                              WebRequest request) {
+        if (request.checkNotModified(availabilityService.availabilityETag(restaurantId, from, to))) {
+            return null;
+        }
+        return availabilityService.getAvailability(restaurantId, from, to);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable Long restaurantId,
+                                         @RequestParam @NotNull LocalDate date) {
+        return availabilityBroadcaster.subscribe(restaurantId, date);
+    }
 }
@@ -0,0 +1,38 @@
+package local.example.restaurant_reservation.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import local.example.restaurant_reservation.dto.AvailableRestaurantDto;
+import local.example.restaurant_reservation.service.AvailabilityService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/availability/search")
+@Validated
+public class AvailabilitySearchController {
+
+    private final AvailabilityService availabilityService;
+
+    public AvailabilitySearchController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AvailableRestaurantDto>> searchAvailableRestaurants(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startsAt,
+            @RequestParam(defaultValue = "1") @Min(1) int tables,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(200) int size) {
+        return availabilityService.searchAvailableRestaurants(startsAt, tables, cursor, size).toResponseEntity();
+    }
+}
@@ -3,22 +3,37 @@ package local.example.restaurant_reservation.controller;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import local.example.restaurant_reservation.dto.BatchReservationResultDto;
+import local.example.restaurant_reservation.dto.BookingRequestStatusDto;
+import local.example.restaurant_reservation.dto.CursorPage;
 import local.example.restaurant_reservation.dto.ReservationRequestDto;
 import local.example.restaurant_reservation.dto.ReservationResponseDto;
 import local.example.restaurant_reservation.dto.ReservationStatusUpdateRequestDto;
+import local.example.restaurant_reservation.service.BookingPipeline;
+import local.example.restaurant_reservation.service.IdempotencyService;
 import local.example.restaurant_reservation.service.ReservationService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping
@@ -26,17 +41,52 @@ import org.springframework.web.bind.annotation.RestController;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final BookingPipeline bookingPipeline;
+    private final IdempotencyService idempotencyService;
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, BookingPipeline bookingPipeline,
+            IdempotencyService idempotencyService) {
         this.reservationService = reservationService;
+        this.bookingPipeline = bookingPipeline;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/reservations")
     public ReservationResponseDto createReservation(
+            @RequestHeader(name = "Idempotency-Key", required = false) @Size(min = 1, max = 255) String idempotencyKey,
             @Valid @RequestBody ReservationRequestDto reservationRequestDto) {
+        if (idempotencyKey != null) {
+            return idempotencyService.createReservation(idempotencyKey, reservationRequestDto);
+        }
         return reservationService.createReservation(reservationRequestDto);
     }
 
+    // Clients opt in with "Prefer: respond-async"; the booking is group-committed with others for its slot
+    @PostMapping(path = "/reservations", headers = "Prefer=respond-async")
+    public ResponseEntity<BookingRequestStatusDto> submitReservation(
+            @Valid @RequestBody ReservationRequestDto reservationRequestDto) {
+        UUID trackingId = bookingPipeline.submit(reservationRequestDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/reservations/requests/" + trackingId))
+                .header("Preference-Applied", "respond-async")
+                .body(BookingRequestStatusDto.pending(trackingId));
+    }
+
+    @GetMapping("/reservations/requests/{trackingId}")
+    public CompletableFuture<BookingRequestStatusDto> getBookingRequest(@PathVariable UUID trackingId,
+            @RequestParam(defaultValue = "0") @Min(0) @Max(30) int waitSeconds) {
+        if (waitSeconds == 0) {
+            return CompletableFuture.completedFuture(bookingPipeline.getStatus(trackingId));
+        }
+        return bookingPipeline.awaitStatus(trackingId, Duration.ofSeconds(waitSeconds));
+    }
+
+    @PostMapping("/reservations/batch")
+    public List<BatchReservationResultDto> createReservations(
+            @RequestBody @NotEmpty @Size(max = 500) List<@Valid ReservationRequestDto> reservationRequestDtos) {
+        return reservationService.createReservations(reservationRequestDtos);
+    }
+
     @GetMapping("/reservations/{reservationId}")
     public ReservationResponseDto getReservation(@PathVariable Long reservationId) {
         return reservationService.getReservation(reservationId);
@@ -49,11 +99,25 @@ public class ReservationController {
     }
 
     @GetMapping("/restaurants/{restaurantId}/reservations")
-    public List<ReservationResponseDto> listReservations(
+    public ResponseEntity<List<ReservationResponseDto>> listReservations(
             @PathVariable Long restaurantId,
             @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "20") @Min(1) @Max(200) int size) {
-        return reservationService.listReservations(restaurantId, date, page, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(reservationService.listReservations(restaurantId, date, page, size));
+        }
+        CursorPage<ReservationResponseDto> reservations =
+                reservationService.listReservationsAfter(restaurantId, date, cursor, size);
+        return reservations.toResponseEntity();
+    }
+
+    @GetMapping(value = "/restaurants/{restaurantId}/reservations/export",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReservations(@PathVariable Long restaurantId) {
+        StreamingResponseBody body =
+                outputStream -> reservationService.exportReservations(restaurantId, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 }
@@ -1,6 +1,7 @@
 package local.example.restaurant_reservation.controller;
 
 import java.util.List;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,9 +11,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import local.example.restaurant_reservation.dto.CursorPage;
 import local.example.restaurant_reservation.dto.RestaurantRequestDto;
 import local.example.restaurant_reservation.dto.RestaurantResponseDto;
 import local.example.restaurant_reservation.service.RestaurantService;
@@ -29,14 +32,22 @@ public class RestaurantController {
     }
 
     @GetMapping
-    public List<RestaurantResponseDto> listRestaurants(
+    public ResponseEntity<List<RestaurantResponseDto>> listRestaurants(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "20") @Min(1) @Max(200) int size) {
-        return restaurantService.listRestaurants(page, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(restaurantService.listRestaurants(page, size));
+        }
+        CursorPage<RestaurantResponseDto> restaurants = restaurantService.listRestaurantsAfter(cursor, size);
+        return restaurants.toResponseEntity();
     }
 
     @GetMapping("/{restaurantId}")
-    public RestaurantResponseDto getRestaurant(@PathVariable Long restaurantId) {
+    public RestaurantResponseDto getRestaurant(@PathVariable Long restaurantId, WebRequest request) {
+        if (request.checkNotModified(restaurantService.restaurantETag(restaurantId))) {
+            return null;
+        }
         return restaurantService.getRestaurant(restaurantId);
     }
 
@@ -0,0 +1,33 @@
+package local.example.restaurant_reservation.dto;
+
+import local.example.restaurant_reservation.model.Restaurant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableRestaurantDto {
+
+    private Long restaurantId;
+
+    private String name;
+
+    private String address;
+
+    private int availableTables;
+
+    public static AvailableRestaurantDto of(Restaurant restaurant, int availableTables) {
+        return AvailableRestaurantDto.builder()
+                .restaurantId(restaurant.getId())
+                .name(restaurant.getName())
+                .address(restaurant.getAddress())
+                .availableTables(availableTables)
+                .build();
+    }
+}
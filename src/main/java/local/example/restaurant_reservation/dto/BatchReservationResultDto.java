@@ -0,0 +1,29 @@
+package local.example.restaurant_reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationResultDto {
+
+    private int index;
+
+    private boolean success;
+
+    private ReservationResponseDto reservation;
+
+    private String error;
+
+    public static BatchReservationResultDto succeeded(int index, ReservationResponseDto reservation) {
+        return new BatchReservationResultDto(index, true, reservation, null);
+    }
+
+    public static BatchReservationResultDto failed(int index, String error) {
+        return new BatchReservationResultDto(index, false, null, error);
+    }
+}
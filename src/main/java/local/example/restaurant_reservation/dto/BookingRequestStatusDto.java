@@ -0,0 +1,43 @@
+package local.example.restaurant_reservation.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingRequestStatusDto {
+
+    private UUID trackingId;
+
+    private Status status;
+
+    private ReservationResponseDto reservation;
+
+    private String error;
+
+    public static BookingRequestStatusDto pending(UUID trackingId) {
+        return new BookingRequestStatusDto(trackingId, Status.PENDING, null, null);
+    }
+
+    // The booking was not committed because of an error, not because it was refused; it may be resent
+    public static BookingRequestStatusDto failed(UUID trackingId) {
+        return new BookingRequestStatusDto(trackingId, Status.FAILED, null,
+                "Booking could not be processed, retry later");
+    }
+
+    public static BookingRequestStatusDto of(UUID trackingId, BatchReservationResultDto result) {
+        return result.isSuccess()
+                ? new BookingRequestStatusDto(trackingId, Status.CONFIRMED, result.getReservation(), null)
+                : new BookingRequestStatusDto(trackingId, Status.REJECTED, null, result.getError());
+    }
+
+    public enum Status {
+        PENDING, CONFIRMED, REJECTED, FAILED
+    }
+}
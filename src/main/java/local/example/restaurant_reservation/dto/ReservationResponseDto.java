@@ -25,6 +25,8 @@ public class ReservationResponseDto {
 
     private OffsetDateTime createdAt;
 
+    private Long version;
+
     public static ReservationResponseDto fromEntity(Reservation reservation) {
         if (reservation == null) {
             return null;
@@ -37,6 +39,7 @@ public class ReservationResponseDto {
         dto.setStartsAt(reservation.getStartsAt());
         dto.setStatus(reservation.getStatus());
         dto.setCreatedAt(reservation.getCreatedAt());
+        dto.setVersion(reservation.getVersion());
         return dto;
     }
 }
@@ -11,4 +11,7 @@ public class ReservationStatusUpdateRequestDto {
 
     @NotNull
     private ReservationStatusEnum status;
+
+    // Version the client last saw; when absent the status is set whatever the current version is
+    private Long version;
 }
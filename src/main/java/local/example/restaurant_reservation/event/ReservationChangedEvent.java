@@ -0,0 +1,13 @@
+package local.example.restaurant_reservation.event;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+public record ReservationChangedEvent(Long restaurantId, OffsetDateTime startsAt) {
+
+    // Availability is computed over UTC days, see ReservationRepository.findByRestaurantAndDate
+    public LocalDate date() {
+        return startsAt.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+}
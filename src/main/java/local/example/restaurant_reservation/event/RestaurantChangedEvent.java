@@ -0,0 +1,4 @@
+package local.example.restaurant_reservation.event;
+
+public record RestaurantChangedEvent(Long restaurantId) {
+}
@@ -28,4 +28,6 @@ public class Reservation {
     private ReservationStatusEnum status;
 
     private OffsetDateTime createdAt;
+
+    private Long version; // bumped on every update
 }
@@ -3,13 +3,10 @@ package local.example.restaurant_reservation.repository;
 import local.example.restaurant_reservation.model.Customer;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.util.Objects;
@@ -26,32 +23,43 @@ public class CustomerRepository {
     public Customer add(Customer customer) {
         Customer nonNullCustomer = Objects.requireNonNull(customer, "customer must not be null");
         SqlParameterSource params = new BeanPropertySqlParameterSource(nonNullCustomer);
-        KeyHolder keyHolder = new GeneratedKeyHolder();
         try {
-            namedParameterJdbcTemplate.update("""
+            return namedParameterJdbcTemplate.queryForObject("""
                     INSERT INTO customer (name, phone, email)
                     VALUES (:name, :phone, :email)
-                    """, params, keyHolder, new String[] {"id"});
+                    RETURNING %s
+                    """.formatted(CustomerRowMapper.COLUMNS), params, CustomerRowMapper.INSTANCE);
         } catch (DuplicateKeyException ex) {
             throw new DuplicateKeyException(
                     "Customer with email %s already exists".formatted(nonNullCustomer.getEmail()),
                     ex);
         }
-        Number key = keyHolder.getKey();
-        if (key == null) {
-            throw new IllegalStateException("Failed to insert customer, no key was generated");
-        }
-        return findById(key.longValue());
+    }
+
+    /**
+     * Returns the id of the customer with this email (case-insensitive), inserting the customer
+     * first if there is none. The no-op update lets RETURNING report an existing row, and the
+     * conflict check makes concurrent first bookings for one email resolve to the same id.
+     */
+    public Long findOrCreate(Customer customer) {
+        Customer nonNullCustomer = Objects.requireNonNull(customer, "customer must not be null");
+        SqlParameterSource params = new BeanPropertySqlParameterSource(nonNullCustomer);
+        return namedParameterJdbcTemplate.queryForObject("""
+                INSERT INTO customer (name, phone, email)
+                VALUES (:name, :phone, :email)
+                ON CONFLICT ((lower(email))) DO UPDATE SET email = customer.email
+                RETURNING id
+                """, params, Long.class);
     }
 
     public Customer findByEmail(String email) {
         try {
             SqlParameterSource params = new MapSqlParameterSource("email", email);
             return namedParameterJdbcTemplate.queryForObject("""
-                    SELECT *
+                    SELECT %s
                     FROM customer
                     WHERE lower(email) = lower(:email)
-                    """, params, new BeanPropertyRowMapper<>(Customer.class));
+                    """.formatted(CustomerRowMapper.COLUMNS), params, CustomerRowMapper.INSTANCE);
         } catch (EmptyResultDataAccessException ex) {
             throw new IllegalArgumentException("Customer with email %s not found".formatted(email),
                     ex);
@@ -62,10 +70,10 @@ public class CustomerRepository {
         try {
             SqlParameterSource params = new MapSqlParameterSource("id", id);
             return namedParameterJdbcTemplate.queryForObject("""
-                    SELECT *
+                    SELECT %s
                     FROM customer
                     WHERE id = :id
-                    """, params, new BeanPropertyRowMapper<>(Customer.class));
+                    """.formatted(CustomerRowMapper.COLUMNS), params, CustomerRowMapper.INSTANCE);
         } catch (EmptyResultDataAccessException ex) {
             throw new IllegalArgumentException("Customer %d not found".formatted(id), ex);
         }
@@ -0,0 +1,29 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+
+import local.example.restaurant_reservation.model.Customer;
+import org.springframework.jdbc.core.RowMapper;
+
+// Maps COLUMNS by position
+final class CustomerRowMapper implements RowMapper<Customer> {
+
+    static final String COLUMNS = "id, name, phone, email, created_at";
+
+    static final CustomerRowMapper INSTANCE = new CustomerRowMapper();
+
+    private CustomerRowMapper() {
+    }
+
+    @Override
+    public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Customer(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getObject(5, OffsetDateTime.class));
+    }
+}
@@ -0,0 +1,59 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class IdempotencyKeyRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public IdempotencyKeyRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Records the key for this transaction; false when it is already taken. While another
+     * transaction holds an uncommitted claim on the key, this waits for it to commit or roll back.
+     */
+    public boolean claim(String idempotencyKey, String requestHash) {
+        return namedParameterJdbcTemplate.update("""
+                INSERT INTO idempotency_key (idempotency_key, request_hash)
+                VALUES (:key, :requestHash)
+                ON CONFLICT (idempotency_key) DO NOTHING
+                """, new MapSqlParameterSource("key", idempotencyKey)
+                .addValue("requestHash", requestHash)) == 1;
+    }
+
+    public void complete(String idempotencyKey, String response) {
+        namedParameterJdbcTemplate.update("""
+                UPDATE idempotency_key
+                SET response = :response
+                WHERE idempotency_key = :key
+                """, new MapSqlParameterSource("key", idempotencyKey).addValue("response", response));
+    }
+
+    // Null when the key is unknown
+    public StoredResponse find(String idempotencyKey) {
+        List<StoredResponse> rows = namedParameterJdbcTemplate.query("""
+                SELECT request_hash, response
+                FROM idempotency_key
+                WHERE idempotency_key = :key
+                """, new MapSqlParameterSource("key", idempotencyKey),
+                (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"), rs.getString("response")));
+        return rows.isEmpty() ? null : rows.getFirst();
+    }
+
+    public int deleteBefore(OffsetDateTime before) {
+        return namedParameterJdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at < :before",
+                new MapSqlParameterSource().addValue("before", before, Types.TIMESTAMP_WITH_TIMEZONE));
+    }
+
+    public record StoredResponse(String requestHash, String response) {
+    }
+}
@@ -0,0 +1,109 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DDL for the monthly partitions of {@code reservation}. Partitions are named
+ * {@code reservation_yYYYYmMM}; rows outside every monthly partition land in
+ * {@code reservation_default}. Callers must run these in a transaction.
+ */
+@Repository
+public class ReservationPartitionRepository {
+
+    public static final String ARCHIVE_SCHEMA = "reservation_archive";
+
+    public static final String DETACH_LOCK_TIMEOUT = "5s";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("reservation_y(\\d{4})m(\\d{2})");
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ReservationPartitionRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    // Serializes maintenance across instances until the transaction ends
+    public void lockMaintenance() {
+        namedParameterJdbcTemplate.getJdbcTemplate().query(
+                "SELECT pg_advisory_xact_lock(hashtext('reservation-partitions'))", rs -> null);
+    }
+
+    // Months that currently have an attached partition, in order
+    public List<YearMonth> findMonths() {
+        return namedParameterJdbcTemplate.getJdbcTemplate().queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'reservation'::regclass
+                """, String.class).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Creates and attaches the partition for {@code month}, first moving any of its rows out of the
+     * default partition, which would otherwise make the attach fail.
+     */
+    public void createMonth(YearMonth month) {
+        String partition = partitionName(month);
+        OffsetDateTime from = monthStart(month);
+        OffsetDateTime to = monthStart(month.plusMonths(1));
+        namedParameterJdbcTemplate.getJdbcTemplate().execute(
+                "CREATE TABLE %s (LIKE reservation INCLUDING DEFAULTS INCLUDING CONSTRAINTS)".formatted(partition));
+        namedParameterJdbcTemplate.update("""
+                WITH moved AS (
+                  DELETE FROM reservation_default
+                  WHERE starts_at >= :from AND starts_at < :to
+                  RETURNING *
+                )
+                INSERT INTO %s SELECT * FROM moved
+                """.formatted(partition), new MapSqlParameterSource()
+                .addValue("from", from, Types.TIMESTAMP_WITH_TIMEZONE)
+                .addValue("to", to, Types.TIMESTAMP_WITH_TIMEZONE));
+        namedParameterJdbcTemplate.getJdbcTemplate().execute("""
+                ALTER TABLE reservation ATTACH PARTITION %s
+                FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')
+                """.formatted(partition, from.toLocalDate(), to.toLocalDate()));
+    }
+
+    /**
+     * Detaches the partition for {@code month} and moves it to the archive schema. The detach takes
+     * an exclusive lock on {@code reservation} until the transaction ends, so run this in a
+     * transaction of its own; it gives up after {@link #DETACH_LOCK_TIMEOUT} rather than queue
+     * every booking behind a long-running reader. {@code DETACH PARTITION CONCURRENTLY} is not an
+     * option while {@code reservation_default} exists.
+     */
+    public void archiveMonth(YearMonth month) {
+        String partition = partitionName(month);
+        namedParameterJdbcTemplate.getJdbcTemplate().execute(
+                "SET LOCAL lock_timeout = '%s'".formatted(DETACH_LOCK_TIMEOUT));
+        namedParameterJdbcTemplate.getJdbcTemplate().execute(
+                "ALTER TABLE reservation DETACH PARTITION " + partition);
+        namedParameterJdbcTemplate.getJdbcTemplate().execute(
+                "ALTER TABLE %s SET SCHEMA %s".formatted(partition, ARCHIVE_SCHEMA));
+    }
+
+    // Built only from the month's numbers, so it is safe to splice into DDL
+    public static String partitionName(YearMonth month) {
+        Objects.requireNonNull(month, "month must not be null");
+        return "reservation_y%04dm%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static OffsetDateTime monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+}
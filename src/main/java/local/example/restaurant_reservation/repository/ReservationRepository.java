@@ -1,14 +1,19 @@
 package local.example.restaurant_reservation.repository;
 
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
@@ -21,97 +26,190 @@ import local.example.restaurant_reservation.model.ReservationStatusEnum;
 @Repository
 public class ReservationRepository {
 
+        // Rows per round trip when streaming; the driver only honours it inside a transaction
+        private static final int STREAM_FETCH_SIZE = 500;
+
         private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+        private final NamedParameterJdbcTemplate streamingJdbcTemplate;
 
         public ReservationRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
                 this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                                Objects.requireNonNull(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource()));
+                jdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+                this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
         }
 
+        private static final String INSERT_SQL = """
+                        INSERT INTO reservation (restaurant_id, customer_id, table_count, starts_at, status)
+                        VALUES (:restaurantId, :customerId, :tableCount, :startsAt, CAST(:status AS reservation_status))
+                        """;
+
+        // RETURNING hands back id and created_at without a second round trip
+        private static final String INSERT_RETURNING_SQL = INSERT_SQL + "RETURNING " + ReservationRowMapper.COLUMNS;
+
+        // The self-join reads the pre-update status in the same statement
+        private static final String UPDATE_STATUS_SQL = """
+                        UPDATE reservation r
+                        SET status = CAST(:status AS reservation_status),
+                          version = r.version + 1
+                        FROM reservation previous
+                        WHERE r.id = :id
+                          AND r.version = :version
+                          AND previous.id = r.id
+                        RETURNING %s, %s AS previous_status
+                        """.formatted(ReservationRowMapper.columns("r"), ReservationRowMapper.statusOrdinal("previous"));
+
+        // The CTE locks the row and reads its latest status, which a plain self-join would not see
+        // if a concurrent change committed while this statement waited for the row
+        private static final String UPDATE_STATUS_ANY_VERSION_SQL = """
+                        WITH previous AS (
+                          SELECT id, status
+                          FROM reservation
+                          WHERE id = :id
+                          FOR UPDATE
+                        )
+                        UPDATE reservation r
+                        SET status = CAST(:status AS reservation_status),
+                          version = r.version + 1
+                        FROM previous
+                        WHERE r.id = previous.id
+                        RETURNING %s, %s AS previous_status
+                        """.formatted(ReservationRowMapper.columns("r"), ReservationRowMapper.statusOrdinal("previous"));
+
+        // Lookups by id alone carry no starts_at bound, so they probe the (id, starts_at) key of every
+        // attached partition instead of pruning to one; callers only know the id, and the probes stay
+        // cheap while the window is a couple of dozen months
+        private static final String FIND_BY_ID_SQL = """
+                        SELECT %s
+                        FROM reservation
+                        WHERE id = :id
+                        """.formatted(ReservationRowMapper.COLUMNS);
+
+        private static final String FIND_IN_RANGE_SQL = """
+                        SELECT %s
+                        FROM reservation
+                        WHERE restaurant_id = :restaurantId
+                          AND starts_at >= :startAt
+                          AND starts_at < :endAt
+                        ORDER BY starts_at, id
+                        """.formatted(ReservationRowMapper.COLUMNS);
+
+        private static final String FIND_PAGE_IN_RANGE_SQL = FIND_IN_RANGE_SQL + "LIMIT :limit OFFSET :offset";
+
+        // Row comparison seeks straight to the cursor on (restaurant_id, starts_at, id)
+        private static final String FIND_AFTER_IN_RANGE_SQL = """
+                        SELECT %s
+                        FROM reservation
+                        WHERE restaurant_id = :restaurantId
+                          AND starts_at >= :startAt
+                          AND starts_at < :endAt
+                          AND (starts_at, id) > (:afterStartsAt, :afterId)
+                        ORDER BY starts_at, id
+                        LIMIT :limit
+                        """.formatted(ReservationRowMapper.COLUMNS);
+
+        private static final String FIND_FIRST_IN_RANGE_SQL = FIND_IN_RANGE_SQL + "LIMIT :limit";
+
+        private static final String STREAM_BY_RESTAURANT_SQL = """
+                        SELECT %s
+                        FROM reservation
+                        WHERE restaurant_id = :restaurantId
+                        ORDER BY starts_at, id
+                        """.formatted(ReservationRowMapper.COLUMNS);
+
+        private static final String FIND_BY_STATUS_NOT_SQL = """
+                        SELECT %s
+                        FROM reservation
+                        WHERE restaurant_id = :restaurantId
+                          AND starts_at >= :startAt
+                          AND starts_at < :endAt
+                          AND status <> CAST(:status AS reservation_status)
+                        ORDER BY starts_at, id
+                        """.formatted(ReservationRowMapper.COLUMNS);
+
         public Reservation add(Reservation reservation) {
-                MapSqlParameterSource params = new MapSqlParameterSource()
+                return namedParameterJdbcTemplate.queryForObject(INSERT_RETURNING_SQL, insertParams(reservation),
+                                ReservationRowMapper.INSTANCE);
+        }
+
+        public List<Reservation> addAll(List<Reservation> reservations) {
+                if (reservations.isEmpty()) {
+                        return List.of();
+                }
+                SqlParameterSource[] batch = reservations.stream()
+                                .map(ReservationRepository::insertParams)
+                                .toArray(SqlParameterSource[]::new);
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                namedParameterJdbcTemplate.batchUpdate(INSERT_SQL, batch, keyHolder,
+                                new String[] { "id", "created_at" });
+                List<Map<String, Object>> keys = keyHolder.getKeyList();
+                if (keys.size() != reservations.size()) {
+                        throw new IllegalStateException("Failed to insert reservations, expected %d keys but got %d"
+                                        .formatted(reservations.size(), keys.size()));
+                }
+                List<Reservation> saved = new ArrayList<>(reservations.size());
+                for (int i = 0; i < reservations.size(); i++) {
+                        Map<String, Object> key = keys.get(i);
+                        saved.add(reservations.get(i).toBuilder()
+                                        .id(((Number) key.get("id")).longValue())
+                                        .createdAt(((Timestamp) key.get("created_at")).toInstant()
+                                                        .atOffset(ZoneOffset.UTC))
+                                        .version(0L)
+                                        .build());
+                }
+                return saved;
+        }
+
+        private static MapSqlParameterSource insertParams(Reservation reservation) {
+                return new MapSqlParameterSource()
                                 .addValue("restaurantId", reservation.getRestaurantId())
                                 .addValue("customerId", reservation.getCustomerId())
                                 .addValue("tableCount", reservation.getTableCount())
                                 .addValue("startsAt", reservation.getStartsAt(),
                                                 Types.TIMESTAMP_WITH_TIMEZONE)
                                 .addValue("status", reservation.getStatus().name(), Types.VARCHAR);
-
-                KeyHolder keyHolder = new GeneratedKeyHolder();
-                namedParameterJdbcTemplate.update(
-                                """
-                                                INSERT INTO reservation (restaurant_id, customer_id, table_count, starts_at, status)
-                                                VALUES (:restaurantId, :customerId, :tableCount, :startsAt, CAST(:status AS reservation_status))
-                                                """,
-                                params, keyHolder, new String[] { "id" });
-                Number key = keyHolder.getKey();
-                if (key == null) {
-                        throw new IllegalStateException("Failed to insert reservation, no key was generated");
-                }
-                return findById(key.longValue());
-        }
-
-        public Reservation update(Reservation reservation) {
-                Reservation nonNullReservation = Objects.requireNonNull(reservation, "reservation must not be null");
-                BeanPropertySqlParameterSource params = new BeanPropertySqlParameterSource(nonNullReservation);
-                namedParameterJdbcTemplate.update("""
-                                UPDATE reservation
-                                SET restaurant_id = :restaurantId,
-                                  customer_id = :customerId,
-                                  table_count = :tableCount,
-                                  starts_at = :startsAt,
-                                  status = CAST(:status AS reservation_status)
-                                WHERE id = :id
-                                """, params);
-                return findById(reservation.getId());
         }
 
-        public Reservation findById(Long reservationId) {
-                try {
-                        SqlParameterSource params = new MapSqlParameterSource("id", reservationId);
-                        return namedParameterJdbcTemplate.queryForObject("""
-                                        SELECT *
-                                        FROM reservation
-                                        WHERE id = :id
-                                        """, params, new BeanPropertyRowMapper<>(Reservation.class));
-                } catch (EmptyResultDataAccessException ex) {
-                        throw new IllegalArgumentException("Reservation %d not found".formatted(reservationId),
-                                        ex);
+        /**
+         * Sets only the status. With an {@code expectedVersion} the update only applies while the row is
+         * still at that version; without one it applies to whatever version is current. The previous
+         * status is returned with the updated row so callers can account for the change. Like
+         * {@link #findById(Long)} it looks the row up by id alone, across every partition.
+         */
+        public StatusChange updateStatus(Long reservationId, Long expectedVersion, ReservationStatusEnum status) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("id", reservationId)
+                                .addValue("version", expectedVersion)
+                                .addValue("status", status.name(), Types.VARCHAR);
+                List<StatusChange> changes = namedParameterJdbcTemplate.query(
+                                expectedVersion != null ? UPDATE_STATUS_SQL : UPDATE_STATUS_ANY_VERSION_SQL, params,
+                                (rs, rowNum) -> new StatusChange(
+                                                ReservationRowMapper.status(rs.getInt("previous_status")),
+                                                ReservationRowMapper.INSTANCE.mapRow(rs, rowNum)));
+                if (changes.isEmpty()) {
+                        if (expectedVersion == null) {
+                                throw new IllegalArgumentException("Reservation %d not found".formatted(reservationId));
+                        }
+                        // Distinguish a missing row (404) from a stale version (409)
+                        findById(reservationId);
+                        throw new OptimisticLockingFailureException(
+                                        "Reservation %d was modified concurrently".formatted(reservationId));
                 }
+                return changes.getFirst();
         }
 
-        public Reservation findByIdForUpdate(Long reservationId) {
+        public Reservation findById(Long reservationId) {
                 try {
                         SqlParameterSource params = new MapSqlParameterSource("id", reservationId);
-                        RowMapper<Reservation> mapper = new BeanPropertyRowMapper<>(Reservation.class);
-                        return namedParameterJdbcTemplate.queryForObject("""
-                                        SELECT *
-                                        FROM reservation
-                                        WHERE id = :id
-                                        FOR UPDATE
-                                        """, params, mapper);
+                        return namedParameterJdbcTemplate.queryForObject(FIND_BY_ID_SQL, params,
+                                        ReservationRowMapper.INSTANCE);
                 } catch (EmptyResultDataAccessException ex) {
                         throw new IllegalArgumentException("Reservation %d not found".formatted(reservationId),
                                         ex);
                 }
         }
 
-        public int sumReservedTablesForSlot(Long restaurantId, java.time.OffsetDateTime startsAt) {
-                MapSqlParameterSource params = new MapSqlParameterSource()
-                                .addValue("restaurantId", restaurantId)
-                                .addValue("startsAt", startsAt, Types.TIMESTAMP_WITH_TIMEZONE)
-                                .addValue("cancelled", ReservationStatusEnum.CANCELLED.name(), Types.VARCHAR);
-
-                Integer count = namedParameterJdbcTemplate.queryForObject("""
-                                SELECT COALESCE(SUM(table_count), 0)
-                                FROM reservation
-                                WHERE restaurant_id = :restaurantId
-                                  AND starts_at = :startsAt
-                                  AND status <> CAST(:cancelled AS reservation_status)
-                                FOR UPDATE
-                                """, params, Integer.class);
-                return count == null ? 0 : count;
-        }
-
         public List<Reservation> findByRestaurantAndDate(Long restaurantId, LocalDate date, int page, int size) {
                 // Compare using UTC day boundaries to avoid timezone-sensitive casts
                 var startOfDayUtc = date.atStartOfDay().atOffset(ZoneOffset.UTC);
@@ -121,15 +219,7 @@ public class ReservationRepository {
                                 .addValue("endAt", endOfDayUtc, Types.TIMESTAMP_WITH_TIMEZONE)
                                 .addValue("limit", size)
                                 .addValue("offset", page * size);
-                return namedParameterJdbcTemplate.query("""
-                                SELECT *
-                                FROM reservation
-                                WHERE restaurant_id = :restaurantId
-                                  AND starts_at >= :startAt
-                                  AND starts_at < :endAt
-                                ORDER BY starts_at, id
-                                LIMIT :limit OFFSET :offset
-                                """, params, new BeanPropertyRowMapper<>(Reservation.class));
+                return namedParameterJdbcTemplate.query(FIND_PAGE_IN_RANGE_SQL, params, ReservationRowMapper.INSTANCE);
         }
 
         public List<Reservation> findByRestaurantAndDate(Long restaurantId, LocalDate date) {
@@ -139,49 +229,57 @@ public class ReservationRepository {
                 MapSqlParameterSource params = new MapSqlParameterSource().addValue("restaurantId", restaurantId)
                                 .addValue("startAt", startOfDayUtc, Types.TIMESTAMP_WITH_TIMEZONE)
                                 .addValue("endAt", endOfDayUtc, Types.TIMESTAMP_WITH_TIMEZONE);
-                return namedParameterJdbcTemplate.query("""
-                                SELECT *
-                                FROM reservation
-                                WHERE restaurant_id = :restaurantId
-                                  AND starts_at >= :startAt
-                                  AND starts_at < :endAt
-                                ORDER BY starts_at, id
-                                """, params, new BeanPropertyRowMapper<>(Reservation.class));
+                return namedParameterJdbcTemplate.query(FIND_IN_RANGE_SQL, params, ReservationRowMapper.INSTANCE);
         }
 
-        public List<Reservation> findByRestaurant(Long restaurantId, int page, int size) {
-                MapSqlParameterSource params = new MapSqlParameterSource("restaurantId", restaurantId)
+        // Bounded by [from, toExclusive) so only the partitions covering that range are scanned
+        public List<Reservation> findByRestaurant(Long restaurantId, OffsetDateTime from, OffsetDateTime toExclusive,
+                        int page, int size) {
+                MapSqlParameterSource params = rangeParams(restaurantId, from, toExclusive)
                                 .addValue("limit", size)
                                 .addValue("offset", page * size);
-                return namedParameterJdbcTemplate.query("""
-                                SELECT *
-                                FROM reservation
-                                WHERE restaurant_id = :restaurantId
-                                ORDER BY starts_at, id
-                                LIMIT :limit OFFSET :offset
-                                """, params, new BeanPropertyRowMapper<>(Reservation.class));
+                return namedParameterJdbcTemplate.query(FIND_PAGE_IN_RANGE_SQL, params, ReservationRowMapper.INSTANCE);
+        }
+
+        public List<Reservation> findByRestaurantAfter(Long restaurantId, OffsetDateTime from,
+                        OffsetDateTime toExclusive, OffsetDateTime afterStartsAt, Long afterId, int limit) {
+                MapSqlParameterSource params = rangeParams(restaurantId, from, toExclusive)
+                                .addValue("limit", limit);
+                if (afterStartsAt == null) {
+                        return namedParameterJdbcTemplate.query(FIND_FIRST_IN_RANGE_SQL, params,
+                                        ReservationRowMapper.INSTANCE);
+                }
+                params.addValue("afterStartsAt", afterStartsAt, Types.TIMESTAMP_WITH_TIMEZONE)
+                                .addValue("afterId", afterId);
+                return namedParameterJdbcTemplate.query(FIND_AFTER_IN_RANGE_SQL, params, ReservationRowMapper.INSTANCE);
         }
 
-        public List<Reservation> findByRestaurant(Long restaurantId) {
+        public List<Reservation> findByRestaurant(Long restaurantId, OffsetDateTime from, OffsetDateTime toExclusive) {
+                MapSqlParameterSource params = rangeParams(restaurantId, from, toExclusive);
+                return namedParameterJdbcTemplate.query(FIND_IN_RANGE_SQL, params, ReservationRowMapper.INSTANCE);
+        }
+
+        // Reads every attached partition; archived months are not included
+        public void streamByRestaurant(Long restaurantId, Consumer<Reservation> consumer) {
                 MapSqlParameterSource params = new MapSqlParameterSource("restaurantId", restaurantId);
-                return namedParameterJdbcTemplate.query("""
-                                SELECT *
-                                FROM reservation
-                                WHERE restaurant_id = :restaurantId
-                                ORDER BY starts_at, id
-                                """, params, new BeanPropertyRowMapper<>(Reservation.class));
+                streamingJdbcTemplate.query(STREAM_BY_RESTAURANT_SQL, params, (RowCallbackHandler) rs -> consumer
+                                .accept(ReservationRowMapper.INSTANCE.mapRow(rs, rs.getRow())));
         }
 
-        public List<Reservation> findByStatusNot(Long restaurantId, ReservationStatusEnum status) {
-                MapSqlParameterSource params = new MapSqlParameterSource()
-                                .addValue("restaurantId", restaurantId).addValue("status", status.name());
-                return namedParameterJdbcTemplate.query("""
-                                SELECT *
-                                FROM reservation
-                                WHERE restaurant_id = :restaurantId
-                                  AND status <> CAST(:status AS reservation_status)
-                                ORDER BY starts_at, id
-                                """, params, new BeanPropertyRowMapper<>(Reservation.class));
+        public List<Reservation> findByStatusNot(Long restaurantId, ReservationStatusEnum status,
+                        OffsetDateTime from, OffsetDateTime toExclusive) {
+                MapSqlParameterSource params = rangeParams(restaurantId, from, toExclusive)
+                                .addValue("status", status.name());
+                return namedParameterJdbcTemplate.query(FIND_BY_STATUS_NOT_SQL, params, ReservationRowMapper.INSTANCE);
         }
 
+        private static MapSqlParameterSource rangeParams(Long restaurantId, OffsetDateTime from,
+                        OffsetDateTime toExclusive) {
+                return new MapSqlParameterSource("restaurantId", restaurantId)
+                                .addValue("startAt", from, Types.TIMESTAMP_WITH_TIMEZONE)
+                                .addValue("endAt", toExclusive, Types.TIMESTAMP_WITH_TIMEZONE);
+        }
+
+        public record StatusChange(ReservationStatusEnum previousStatus, Reservation updated) {
+        }
 }
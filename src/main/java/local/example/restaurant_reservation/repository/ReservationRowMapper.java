@@ -0,0 +1,62 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import local.example.restaurant_reservation.model.Reservation;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Maps {@link #COLUMNS} by position. The status is selected as the Java ordinal of its
+ * {@code reservation_status} label, through a {@code CASE} built from {@link ReservationStatusEnum},
+ * so each row resolves with an array index and the order of the Postgres enum does not matter.
+ */
+final class ReservationRowMapper implements RowMapper<Reservation> {
+
+    private static final ReservationStatusEnum[] STATUSES = ReservationStatusEnum.values();
+
+    static final String COLUMNS = columns("reservation");
+
+    static final ReservationRowMapper INSTANCE = new ReservationRowMapper();
+
+    private ReservationRowMapper() {
+    }
+
+    // The column list qualified with a table name or alias, for statements that join reservation
+    static String columns(String table) {
+        return """
+                %1$s.id, %1$s.restaurant_id, %1$s.customer_id, %1$s.table_count, %1$s.starts_at,
+                %2$s AS status_ordinal, %1$s.created_at, %1$s.version""".formatted(table, statusOrdinal(table));
+    }
+
+    // Labels the enum does not know map to -1; a Java name missing from the enum fails at parse time
+    static String statusOrdinal(String table) {
+        return Arrays.stream(STATUSES)
+                .map(status -> "WHEN '%s' THEN %d".formatted(status.name(), status.ordinal()))
+                .collect(Collectors.joining(" ", "CASE %s.status ".formatted(table), " ELSE -1 END"));
+    }
+
+    static ReservationStatusEnum status(int ordinal) {
+        if (ordinal < 0 || ordinal >= STATUSES.length) {
+            throw new IllegalStateException("Unknown reservation status ordinal %d".formatted(ordinal));
+        }
+        return STATUSES[ordinal];
+    }
+
+    @Override
+    public Reservation mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Reservation(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getLong(3),
+                rs.getInt(4),
+                rs.getObject(5, OffsetDateTime.class),
+                status(rs.getInt(6)),
+                rs.getObject(7, OffsetDateTime.class),
+                rs.getLong(8));
+    }
+}
@@ -1,16 +1,22 @@
 package local.example.restaurant_reservation.repository;
 
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import local.example.restaurant_reservation.model.Restaurant;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -24,56 +30,118 @@ public class RestaurantRepository {
 
     public Restaurant findById(Long id) {
         SqlParameterSource parameterSource = new MapSqlParameterSource("id", id);
-        return namedParameterJdbcTemplate.queryForObject("SELECT * FROM restaurant WHERE id=:id",
-                parameterSource, new BeanPropertyRowMapper<>(Restaurant.class));
+        return namedParameterJdbcTemplate.queryForObject(
+                "SELECT " + RestaurantRowMapper.COLUMNS + " FROM restaurant WHERE id=:id",
+                parameterSource, RestaurantRowMapper.INSTANCE);
     }
 
     public Restaurant findByIdForUpdate(Long id) {
         SqlParameterSource parameterSource = new MapSqlParameterSource("id", id);
         return namedParameterJdbcTemplate.queryForObject(
-                "SELECT * FROM restaurant WHERE id=:id FOR UPDATE",
+                "SELECT " + RestaurantRowMapper.COLUMNS + " FROM restaurant WHERE id=:id FOR UPDATE",
                 parameterSource,
-                new BeanPropertyRowMapper<>(Restaurant.class));
+                RestaurantRowMapper.INSTANCE);
     }
 
     public Restaurant add(Restaurant restaurant) {
         Restaurant nonNullRestaurant =
                 Objects.requireNonNull(restaurant, "restaurant must not be null");
         SqlParameterSource params = new BeanPropertySqlParameterSource(nonNullRestaurant);
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        int rowsUpdated = namedParameterJdbcTemplate.update("""
+        return namedParameterJdbcTemplate.queryForObject("""
                 INSERT INTO restaurant
                 (name, address, phone, open_time, close_time, total_tables)
                 VALUES (:name, :address, :phone, :openTime, :closeTime, :totalTables)
-                """, params, keyHolder, new String[] {"id"});
-        Number key = keyHolder.getKey();
-        if (rowsUpdated == 0 || key == null) {
-            throw new IllegalStateException("Failed to insert restaurant");
-        }
-        return findById(key.longValue());
+                RETURNING %s
+                """.formatted(RestaurantRowMapper.COLUMNS), params, RestaurantRowMapper.INSTANCE);
     }
 
     public Restaurant update(Restaurant restaurant) {
         Restaurant nonNullRestaurant =
                 Objects.requireNonNull(restaurant, "restaurant must not be null");
         SqlParameterSource params = new BeanPropertySqlParameterSource(nonNullRestaurant);
-        namedParameterJdbcTemplate.update("""
+        return namedParameterJdbcTemplate.queryForObject("""
                 UPDATE restaurant
                 SET name=:name, address=:address, phone=:phone,
                   open_time=:openTime, close_time=:closeTime, total_tables=:totalTables
                 WHERE id=:id
-                """, params);
-        return findById(restaurant.getId());
+                RETURNING %s
+                """.formatted(RestaurantRowMapper.COLUMNS), params, RestaurantRowMapper.INSTANCE);
     }
 
     public List<Restaurant> findAll(int page, int size) {
         SqlParameterSource params = new MapSqlParameterSource().addValue("limit", size)
                 .addValue("offset", (long) page * size);
         return namedParameterJdbcTemplate.query("""
-                SELECT *
+                SELECT %s
                 FROM restaurant
                 ORDER BY name, id
                 LIMIT :limit OFFSET :offset
-                """, params, new BeanPropertyRowMapper<>(Restaurant.class));
+                """.formatted(RestaurantRowMapper.COLUMNS), params, RestaurantRowMapper.INSTANCE);
+    }
+
+    public List<Restaurant> findAllAfter(String afterName, Long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String seek = "";
+        if (afterName != null) {
+            params.addValue("afterName", afterName).addValue("afterId", afterId);
+            seek = "WHERE (name, id) > (:afterName, :afterId)";
+        }
+        return namedParameterJdbcTemplate.query("""
+                SELECT %s
+                FROM restaurant
+                %s
+                ORDER BY name, id
+                LIMIT :limit
+                """.formatted(RestaurantRowMapper.COLUMNS, seek), params, RestaurantRowMapper.INSTANCE);
+    }
+
+    // Free tables per restaurant open at the given hour slot; restaurantId narrows it to one restaurant
+    public Map<Long, Integer> findFreeTablesAt(Instant slot, Long restaurantId) {
+        var slotStart = slot.atOffset(ZoneOffset.UTC);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("slotStart", slotStart, Types.TIMESTAMP_WITH_TIMEZONE)
+                .addValue("slotTime", slotStart.toLocalTime());
+        String restaurantFilter = "";
+        if (restaurantId != null) {
+            params.addValue("restaurantId", restaurantId);
+            restaurantFilter = "AND r.id = :restaurantId";
+        }
+        Map<Long, Integer> freeTables = new LinkedHashMap<>();
+        namedParameterJdbcTemplate.query("""
+                SELECT r.id, GREATEST(r.total_tables - COALESCE(o.reserved_tables, 0), 0) AS free_tables
+                FROM restaurant r
+                LEFT JOIN slot_occupancy o
+                  ON o.restaurant_id = r.id
+                 AND o.slot_start = :slotStart
+                WHERE r.open_time <= :slotTime
+                  AND r.close_time > :slotTime
+                  %s
+                """.formatted(restaurantFilter), params,
+                (RowCallbackHandler) rs -> freeTables.put(rs.getLong("id"), rs.getInt("free_tables")));
+        return freeTables;
+    }
+
+    // Free tables of one restaurant at each of the given hour slots it is open at
+    public Map<Instant, Integer> findFreeTablesOf(Long restaurantId, Collection<Instant> slots) {
+        Map<Instant, Integer> freeTables = new HashMap<>();
+        if (slots.isEmpty()) {
+            return freeTables;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("restaurantId", restaurantId)
+                .addValue("slotStarts", slots.stream().map(slot -> slot.atOffset(ZoneOffset.UTC)).toList(),
+                        Types.TIMESTAMP_WITH_TIMEZONE);
+        namedParameterJdbcTemplate.query("""
+                SELECT s.slot_start, GREATEST(r.total_tables - COALESCE(o.reserved_tables, 0), 0) AS free_tables
+                FROM restaurant r
+                CROSS JOIN unnest(CAST(ARRAY[:slotStarts] AS timestamptz[])) AS s(slot_start)
+                LEFT JOIN slot_occupancy o
+                  ON o.restaurant_id = r.id
+                 AND o.slot_start = s.slot_start
+                WHERE r.id = :restaurantId
+                  AND r.open_time <= CAST(s.slot_start AT TIME ZONE 'UTC' AS time)
+                  AND r.close_time > CAST(s.slot_start AT TIME ZONE 'UTC' AS time)
+                """, params, (RowCallbackHandler) rs -> freeTables.put(
+                        rs.getObject("slot_start", OffsetDateTime.class).toInstant(), rs.getInt("free_tables")));
+        return freeTables;
     }
 }
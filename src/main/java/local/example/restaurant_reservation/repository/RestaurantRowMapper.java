@@ -0,0 +1,33 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+
+import local.example.restaurant_reservation.model.Restaurant;
+import org.springframework.jdbc.core.RowMapper;
+
+// Maps COLUMNS by position
+final class RestaurantRowMapper implements RowMapper<Restaurant> {
+
+    static final String COLUMNS = "id, name, address, phone, open_time, close_time, total_tables, created_at";
+
+    static final RestaurantRowMapper INSTANCE = new RestaurantRowMapper();
+
+    private RestaurantRowMapper() {
+    }
+
+    @Override
+    public Restaurant mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Restaurant(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getObject(5, LocalTime.class),
+                rs.getObject(6, LocalTime.class),
+                rs.getInt(7),
+                rs.getObject(8, OffsetDateTime.class));
+    }
+}
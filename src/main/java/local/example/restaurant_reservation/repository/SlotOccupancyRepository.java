@@ -0,0 +1,149 @@
+package local.example.restaurant_reservation.repository;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reserved tables per restaurant and UTC hour slot. Every change goes through a single-row
+ * upsert, so the row lock it takes serializes bookings for one slot and the table's CHECK keeps
+ * {@code reserved_tables} within {@code total_tables}.
+ */
+@Repository
+public class SlotOccupancyRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public SlotOccupancyRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Adds {@code tables} to the slot if it stays within the restaurant's capacity. Returns false
+     * when the slot is full or the restaurant does not exist.
+     */
+    public boolean tryReserve(Long restaurantId, OffsetDateTime startsAt, int tables) {
+        // The first booking of a slot creates its row; later ones only update it while there is room
+        return namedParameterJdbcTemplate.update("""
+                INSERT INTO slot_occupancy (restaurant_id, slot_start, reserved_tables, total_tables)
+                SELECT id, :slotStart, :tables, total_tables
+                FROM restaurant
+                WHERE id = :restaurantId
+                  AND total_tables >= :tables
+                ON CONFLICT (restaurant_id, slot_start) DO UPDATE
+                SET reserved_tables = slot_occupancy.reserved_tables + EXCLUDED.reserved_tables
+                WHERE slot_occupancy.reserved_tables + EXCLUDED.reserved_tables <= slot_occupancy.total_tables
+                """, slotParams(restaurantId, startsAt).addValue("tables", tables)) == 1;
+    }
+
+    /**
+     * Holds off every slot write until the transaction ends, after waiting for those in flight, so
+     * a capacity change sees each slot row including ones just created from the old capacity. Take
+     * it before locking the restaurant row: a booking holds its slot write while its foreign key
+     * check waits on that row.
+     */
+    public void lockForCapacityChange() {
+        namedParameterJdbcTemplate.getJdbcTemplate().execute("LOCK TABLE slot_occupancy IN SHARE MODE");
+    }
+
+    /**
+     * Locks the slot's row, creating it if needed, and returns its current counts; null when the
+     * restaurant does not exist. The lock is held until the transaction ends.
+     */
+    public Occupancy lock(Long restaurantId, OffsetDateTime startsAt) {
+        List<Occupancy> rows = namedParameterJdbcTemplate.query("""
+                INSERT INTO slot_occupancy (restaurant_id, slot_start, reserved_tables, total_tables)
+                SELECT id, :slotStart, 0, total_tables
+                FROM restaurant
+                WHERE id = :restaurantId
+                ON CONFLICT (restaurant_id, slot_start) DO UPDATE
+                SET reserved_tables = slot_occupancy.reserved_tables
+                RETURNING reserved_tables, total_tables
+                """, slotParams(restaurantId, startsAt),
+                (rs, rowNum) -> new Occupancy(rs.getInt("reserved_tables"), rs.getInt("total_tables")));
+        return rows.isEmpty() ? null : rows.getFirst();
+    }
+
+    // Applies a known-safe change, e.g. a release or a total already checked under lock()
+    public void add(Long restaurantId, OffsetDateTime startsAt, int delta) {
+        namedParameterJdbcTemplate.update("""
+                UPDATE slot_occupancy
+                SET reserved_tables = reserved_tables + :delta
+                WHERE restaurant_id = :restaurantId
+                  AND slot_start = :slotStart
+                """, slotParams(restaurantId, startsAt).addValue("delta", delta));
+    }
+
+    /**
+     * Copies a new capacity onto the restaurant's upcoming slots. Fails with a
+     * {@link org.springframework.dao.DataIntegrityViolationException} when a slot already holds
+     * more tables than the new capacity.
+     */
+    public void updateCapacity(Long restaurantId, int totalTables, OffsetDateTime from) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("restaurantId", restaurantId)
+                .addValue("totalTables", totalTables)
+                .addValue("from", slotStart(from), Types.TIMESTAMP_WITH_TIMEZONE);
+        namedParameterJdbcTemplate.update("""
+                UPDATE slot_occupancy
+                SET total_tables = :totalTables
+                WHERE restaurant_id = :restaurantId
+                  AND slot_start >= :from
+                  AND total_tables <> :totalTables
+                """, params);
+    }
+
+    // Drops slots whose reservations have been archived
+    public void deleteBefore(OffsetDateTime before) {
+        namedParameterJdbcTemplate.update("DELETE FROM slot_occupancy WHERE slot_start < :before",
+                new MapSqlParameterSource().addValue("before", before, Types.TIMESTAMP_WITH_TIMEZONE));
+    }
+
+    public Map<LocalDateTime, Integer> findReservedByHour(Long restaurantId, LocalDate from,
+            LocalDate toExclusive) {
+        MapSqlParameterSource params = new MapSqlParameterSource("restaurantId", restaurantId)
+                .addValue("startAt", from.atStartOfDay().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE)
+                .addValue("endAt", toExclusive.atStartOfDay().atOffset(ZoneOffset.UTC),
+                        Types.TIMESTAMP_WITH_TIMEZONE);
+        Map<LocalDateTime, Integer> reservedByHour = new HashMap<>();
+        namedParameterJdbcTemplate.query("""
+                SELECT slot_start AT TIME ZONE 'UTC' AS slot, reserved_tables
+                FROM slot_occupancy
+                WHERE restaurant_id = :restaurantId
+                  AND slot_start >= :startAt
+                  AND slot_start < :endAt
+                  AND reserved_tables > 0
+                """, params, (RowCallbackHandler) rs -> reservedByHour
+                .put(rs.getObject("slot", LocalDateTime.class), rs.getInt("reserved_tables")));
+        return reservedByHour;
+    }
+
+    // Bookings are counted against the UTC hour they start in, the same slots availability shows
+    public static OffsetDateTime slotStart(OffsetDateTime startsAt) {
+        return startsAt.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static MapSqlParameterSource slotParams(Long restaurantId, OffsetDateTime startsAt) {
+        return new MapSqlParameterSource()
+                .addValue("restaurantId", restaurantId)
+                .addValue("slotStart", slotStart(startsAt), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    public record Occupancy(int reservedTables, int totalTables) {
+
+        public int freeTables() {
+            return totalTables - reservedTables;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package local.example.restaurant_reservation.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto.SlotAvailability;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes availability changes for one restaurant and day to Server-Sent Events subscribers.
+ * A subscriber first gets a {@code snapshot} event, then {@code delta} events holding only the
+ * slots whose free tables changed. Committed changes mark their day dirty; each flush loads a dirty
+ * day once and hands it to every subscriber of that day, so a burst of bookings becomes one event.
+ * Idle subscribers hold no thread. Each one buffers at most one pending update, which newer
+ * updates replace, so a slow client cannot hold up the others or pile up memory.
+ */
+@Component
+public class AvailabilityBroadcaster {
+
+    private final AvailabilityService availabilityService;
+    private final Executor sender;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final Map<Key, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public AvailabilityBroadcaster(AvailabilityService availabilityService, MeterRegistry meterRegistry,
+            @Value("${reservation.availability-stream.timeout:PT30M}") Duration timeout,
+            @Value("${reservation.availability-stream.max-subscribers:10000}") int maxSubscribers) {
+        // Sends block on slow clients, so each drain gets its own virtual thread
+        this(availabilityService, Executors.newVirtualThreadPerTaskExecutor(), timeout, maxSubscribers);
+        meterRegistry.gauge("reservation.availability.subscribers", subscriberCount);
+    }
+
+    AvailabilityBroadcaster(AvailabilityService availabilityService, Executor sender, Duration timeout,
+            int maxSubscribers) {
+        this.availabilityService = availabilityService;
+        this.sender = sender;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public SseEmitter subscribe(Long restaurantId, LocalDate date) {
+        // Load the first snapshot before opening the stream, so an unknown restaurant is still a 404
+        AvailabilityResponseDto snapshot = availabilityService.getAvailability(restaurantId, date);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        register(restaurantId, date, emitter, snapshot);
+        return emitter;
+    }
+
+    void register(Long restaurantId, LocalDate date, SseEmitter emitter, AvailabilityResponseDto snapshot) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many availability subscribers");
+        }
+        Subscriber subscriber = new Subscriber(new Key(restaurantId, date), emitter);
+        subscribers.compute(subscriber.key, (key, keySubscribers) -> {
+            Set<Subscriber> result = keySubscribers != null ? keySubscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscriber.offer(snapshot);
+        // A change committed after the snapshot was loaded but before this subscriber was listed
+        // would otherwise be missed; the extra load is shared with the day's other subscribers
+        dirty.add(subscriber.key);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Key key = new Key(event.restaurantId(), event.date());
+        if (subscribers.containsKey(key)) {
+            dirty.add(key);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        for (Key key : subscribers.keySet()) {
+            if (key.restaurantId().equals(event.restaurantId())) {
+                dirty.add(key);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.availability-stream.flush-interval:PT1S}")
+    public void flush() {
+        for (Key key : List.copyOf(dirty)) {
+            // Cleared before loading, so a change committed after this point marks the day again
+            if (!dirty.remove(key)) {
+                continue;
+            }
+            Set<Subscriber> keySubscribers = subscribers.get(key);
+            if (keySubscribers == null) {
+                continue;
+            }
+            AvailabilityResponseDto availability;
+            try {
+                availability = availabilityService.getAvailability(key.restaurantId(), key.date());
+            } catch (RuntimeException ex) {
+                // Try again on the next flush
+                dirty.add(key);
+                continue;
+            }
+            keySubscribers.forEach(subscriber -> subscriber.offer(availability));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.values().forEach(keySubscribers -> keySubscribers.forEach(s -> s.emitter.complete()));
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.key, (key, keySubscribers) -> {
+            if (keySubscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return keySubscribers.isEmpty() ? null : keySubscribers;
+        });
+    }
+
+    // Opening hours changed when the slot times differ; a delta could not express that
+    private static boolean sameHours(List<SlotAvailability> a, List<SlotAvailability> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getStartTime().equals(b.get(i).getStartTime())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Key(Long restaurantId, LocalDate date) {
+    }
+
+    private final class Subscriber {
+
+        private final Key key;
+        private final SseEmitter emitter;
+        private final AtomicReference<AvailabilityResponseDto> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Only touched by the drain holding the draining flag
+        private List<SlotAvailability> sent;
+
+        private Subscriber(Key key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void offer(AvailabilityResponseDto availability) {
+            pending.set(availability);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                AvailabilityResponseDto next;
+                while ((next = pending.getAndSet(null)) != null) {
+                    send(next);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the stream already ended
+                remove(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An offer made after the last read but before the flag was cleared would otherwise wait
+            if (pending.get() != null && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void send(AvailabilityResponseDto availability) throws IOException {
+            List<SlotAvailability> slots = availability.getSlots();
+            if (sent == null || !sameHours(sent, slots)) {
+                emitter.send(SseEmitter.event().name("snapshot").data(availability, MediaType.APPLICATION_JSON));
+            } else {
+                List<SlotAvailability> changed = new ArrayList<>();
+                for (int i = 0; i < slots.size(); i++) {
+                    if (slots.get(i).getAvailableTables() != sent.get(i).getAvailableTables()) {
+                        changed.add(slots.get(i));
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    emitter.send(SseEmitter.event().name("delta").data(AvailabilityResponseDto.builder()
+                            .restaurantId(availability.getRestaurantId())
+                            .date(availability.getDate())
+                            .slots(changed)
+                            .build(), MediaType.APPLICATION_JSON));
+                }
+            }
+            sent = slots;
+        }
+    }
+}
@@ -1,51 +1,130 @@
 package local.example.restaurant_reservation.service;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import local.example.restaurant_reservation.cache.AvailabilityCache;
+import local.example.restaurant_reservation.cache.AvailabilitySearchIndex;
+import local.example.restaurant_reservation.cache.ResourceVersions;
+import local.example.restaurant_reservation.cache.RestaurantCache;
 import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
 import local.example.restaurant_reservation.dto.AvailabilityResponseDto.SlotAvailability;
-import local.example.restaurant_reservation.model.Reservation;
-import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.dto.AvailableRestaurantDto;
+import local.example.restaurant_reservation.dto.CursorPage;
+import local.example.restaurant_reservation.dto.PageCursor;
 import local.example.restaurant_reservation.model.Restaurant;
-import local.example.restaurant_reservation.repository.ReservationRepository;
-import local.example.restaurant_reservation.repository.RestaurantRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class AvailabilityService {
 
-    private final RestaurantRepository restaurantRepository;
-    private final ReservationRepository reservationRepository;
+    static final int MAX_RANGE_DAYS = 31;
 
-    public AvailabilityService(RestaurantRepository restaurantRepository,
-            ReservationRepository reservationRepository) {
-        this.restaurantRepository = restaurantRepository;
-        this.reservationRepository = reservationRepository;
+    private final RestaurantCache restaurantCache;
+    private final SlotOccupancyRepository slotOccupancyRepository;
+    private final AvailabilityCache availabilityCache;
+    private final AvailabilitySearchIndex searchIndex;
+    private final ResourceVersions resourceVersions;
+
+    public AvailabilityService(RestaurantCache restaurantCache,
+            SlotOccupancyRepository slotOccupancyRepository, AvailabilityCache availabilityCache,
+            AvailabilitySearchIndex searchIndex, ResourceVersions resourceVersions) {
+        this.restaurantCache = restaurantCache;
+        this.slotOccupancyRepository = slotOccupancyRepository;
+        this.availabilityCache = availabilityCache;
+        this.searchIndex = searchIndex;
+        this.resourceVersions = resourceVersions;
+    }
+
+    public String availabilityETag(Long restaurantId, LocalDate date) {
+        return resourceVersions.availabilityETag(restaurantId, date, date);
+    }
+
+    // Null for a range getAvailability would reject
+    public String availabilityETag(Long restaurantId, LocalDate from, LocalDate to) {
+        return isValidRange(from, to) ? resourceVersions.availabilityETag(restaurantId, from, to) : null;
     }
 
+    @Transactional(readOnly = true)
     public AvailabilityResponseDto getAvailability(Long restaurantId, LocalDate date) {
-        Restaurant restaurant = restaurantRepository.findById(restaurantId);
-        List<Reservation> reservations = reservationRepository.findByRestaurantAndDate(restaurantId, date);
+        return availabilityCache.get(restaurantId, date,
+                () -> computeAvailability(restaurantId, List.of(date)).get(date));
+    }
 
-        // Group reserved tables by hour (excluding cancelled)
-        Map<LocalTime, Integer> reservedByHour = reservations.stream()
-                .filter(r -> r.getStatus() != ReservationStatusEnum.CANCELLED)
-                .collect(Collectors.groupingBy(
-                        r -> r.getStartsAt().toLocalTime().withMinute(0).withSecond(0).withNano(0),
-                        Collectors.summingInt(Reservation::getTableCount)));
+    @Transactional(readOnly = true)
+    public List<AvailabilityResponseDto> getAvailability(Long restaurantId, LocalDate from, LocalDate to) {
+        if (!isValidRange(from, to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must span 1 to %d days".formatted(MAX_RANGE_DAYS));
+        }
+        List<LocalDate> dates = from.datesUntil(to.plusDays(1)).toList();
+        return availabilityCache.getAll(restaurantId, dates, missing -> computeAvailability(restaurantId, missing));
+    }
 
+    @Transactional(readOnly = true)
+    public CursorPage<AvailableRestaurantDto> searchAvailableRestaurants(OffsetDateTime startsAt, int tables,
+            String cursor, int size) {
+        Instant slot = startsAt.toInstant().truncatedTo(ChronoUnit.HOURS);
+        PageCursor after = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor);
+        // Fetch one extra entry to learn whether another page exists
+        List<AvailabilitySearchIndex.Entry> entries = searchIndex.search(slot, tables,
+                after == null ? null : new AvailabilitySearchIndex.Entry(after.sortKeyAsInt(), after.id()),
+                size + 1);
+        String nextCursor = null;
+        if (entries.size() > size) {
+            entries = entries.subList(0, size);
+            AvailabilitySearchIndex.Entry last = entries.getLast();
+            nextCursor = new PageCursor(String.valueOf(last.freeTables()), last.restaurantId()).encode();
+        }
+        List<AvailableRestaurantDto> restaurants = entries.stream()
+                .map(entry -> AvailableRestaurantDto.of(restaurantCache.get(entry.restaurantId()),
+                        entry.freeTables()))
+                .toList();
+        return new CursorPage<>(restaurants, nextCursor);
+    }
+
+    private static boolean isValidRange(LocalDate from, LocalDate to) {
+        return !to.isBefore(from) && ChronoUnit.DAYS.between(from, to) < MAX_RANGE_DAYS;
+    }
+
+    private Map<LocalDate, AvailabilityResponseDto> computeAvailability(Long restaurantId, List<LocalDate> dates) {
+        Restaurant restaurant = restaurantCache.get(restaurantId);
+        // Reserved tables per UTC hour for the whole range, read straight from the occupied slots
+        Map<LocalDateTime, Integer> reservedByHour = slotOccupancyRepository.findReservedByHour(restaurantId,
+                dates.getFirst(), dates.getLast().plusDays(1));
+
+        Map<LocalDate, AvailabilityResponseDto> availability = new LinkedHashMap<>();
+        for (LocalDate date : dates) {
+            availability.put(date, AvailabilityResponseDto.builder()
+                    .restaurantId(restaurantId)
+                    .date(date)
+                    .slots(buildSlots(restaurant, date, reservedByHour))
+                    .build());
+        }
+        return availability;
+    }
+
+    static List<SlotAvailability> buildSlots(Restaurant restaurant, LocalDate date,
+            Map<LocalDateTime, Integer> reservedByHour) {
         // Generate slots for each hour from open to close
         List<SlotAvailability> slots = new ArrayList<>();
         LocalTime current = restaurant.getOpenTime();
         LocalTime closeTime = restaurant.getCloseTime();
 
         while (current.isBefore(closeTime)) {
-            int reserved = reservedByHour.getOrDefault(current, 0);
+            int reserved = reservedByHour.getOrDefault(date.atTime(current), 0);
             int available = Math.max(restaurant.getTotalTables() - reserved, 0);
             slots.add(SlotAvailability.builder()
                     .startTime(current)
@@ -53,11 +132,6 @@ public class AvailabilityService {
                     .build());
             current = current.plusHours(1);
         }
-
-        return AvailabilityResponseDto.builder()
-                .restaurantId(restaurantId)
-                .date(date)
-                .slots(slots)
-                .build();
+        return slots;
     }
 }
@@ -0,0 +1,92 @@
+package local.example.restaurant_reservation.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Booking phase timers plus rejection and error counters, tagged by restaurant. Only the first
+ * {@code reservation.metrics.max-restaurant-tags} restaurants to have a booking admitted get their
+ * own tag value; every other restaurant, and any id that does not exist, is reported as
+ * {@value #OTHER}, so the number of series stays bounded.
+ */
+@Component
+public class BookingMetrics {
+
+    static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxRestaurantTags;
+    private final Map<Long, String> restaurantTags = new ConcurrentHashMap<>();
+
+    public BookingMetrics(MeterRegistry meterRegistry,
+            @Value("${reservation.metrics.max-restaurant-tags:50}") int maxRestaurantTags) {
+        this.meterRegistry = meterRegistry;
+        this.maxRestaurantTags = maxRestaurantTags;
+    }
+
+    public <T> T time(String phase, Long restaurantId, Supplier<T> step) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return step.get();
+        } finally {
+            sample.stop(Timer.builder("reservation.booking.phase")
+                    .description("Time spent in each phase of a single booking")
+                    .tag("phase", phase)
+                    .tag("restaurant", restaurantTag(restaurantId, false))
+                    .register(meterRegistry));
+        }
+    }
+
+    public void time(String phase, Long restaurantId, Runnable step) {
+        time(phase, restaurantId, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    // An admitted booking proves the restaurant exists, so it may claim a tag of its own
+    public void admitted(Long restaurantId) {
+        restaurantTag(restaurantId, true);
+    }
+
+    // A full slot is an expected outcome, not a failure
+    public void rejected(Long restaurantId) {
+        Counter.builder("reservation.booking.rejections")
+                .description("Bookings turned away because the slot had no capacity left")
+                .tag("restaurant", restaurantTag(restaurantId, false))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void failed(Long restaurantId, Throwable error) {
+        Counter.builder("reservation.booking.errors")
+                .description("Bookings that failed with an exception")
+                .tag("restaurant", restaurantTag(restaurantId, false))
+                .tag("exception", error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    String restaurantTag(Long restaurantId, boolean track) {
+        if (restaurantId == null) {
+            return OTHER;
+        }
+        String tag = restaurantTags.get(restaurantId);
+        if (tag != null || !track) {
+            return tag != null ? tag : OTHER;
+        }
+        synchronized (restaurantTags) {
+            if (restaurantTags.size() >= maxRestaurantTags) {
+                return OTHER;
+            }
+            return restaurantTags.computeIfAbsent(restaurantId, String::valueOf);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package local.example.restaurant_reservation.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import local.example.restaurant_reservation.dto.BatchReservationResultDto;
+import local.example.restaurant_reservation.dto.BookingRequestStatusDto;
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Group commit for bookings accepted asynchronously. Requests queue per restaurant and UTC hour
+ * slot, and one worker per slot drains its queue in batches through
+ * {@link ReservationService#createReservations}: one slot lock, admission in arrival order until the
+ * slot is full, one multi-row insert and one commit per batch. A release rush then waits on its
+ * queue instead of on the slot's row lock. At most {@code max-concurrent-drains} batches commit
+ * at once, by default one per pooled connection. A batch that fails with an exception is reported
+ * as {@code FAILED} rather than rejected, so clients know to retry. Outcomes are kept for
+ * {@code result-ttl}; queued requests are lost if the instance stops before they are drained.
+ */
+@Component
+public class BookingPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingPipeline.class);
+
+    private final ReservationService reservationService;
+    private final Executor worker;
+    private final int maxBatch;
+    private final int maxQueued;
+    private final Semaphore drainPermits;
+    private final Map<SlotKey, SlotQueue> queues = new ConcurrentHashMap<>();
+    private final Cache<UUID, CompletableFuture<BatchReservationResultDto>> outcomes;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    @Autowired
+    public BookingPipeline(ReservationService reservationService,
+            @Value("${reservation.async-booking.max-batch:100}") int maxBatch,
+            @Value("${reservation.async-booking.max-queued:10000}") int maxQueued,
+            @Value("${reservation.async-booking.max-concurrent-drains:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int maxConcurrentDrains,
+            @Value("${reservation.async-booking.result-ttl:PT10M}") Duration resultTtl) {
+        this(reservationService, Executors.newVirtualThreadPerTaskExecutor(), maxBatch, maxQueued,
+                maxConcurrentDrains, resultTtl);
+    }
+
+    BookingPipeline(ReservationService reservationService, Executor worker, int maxBatch, int maxQueued,
+            int maxConcurrentDrains, Duration resultTtl) {
+        this.reservationService = reservationService;
+        this.worker = worker;
+        this.maxBatch = maxBatch;
+        this.maxQueued = maxQueued;
+        this.drainPermits = new Semaphore(maxConcurrentDrains, true);
+        this.outcomes = Caffeine.newBuilder().expireAfterWrite(resultTtl).build();
+    }
+
+    // Queues the booking and returns the id to look its outcome up with
+    public UUID submit(ReservationRequestDto requestDto) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking queue is full, retry later");
+        }
+        UUID trackingId = UUID.randomUUID();
+        CompletableFuture<BatchReservationResultDto> outcome = new CompletableFuture<>();
+        outcomes.put(trackingId, outcome);
+        SlotKey key = new SlotKey(requestDto.getRestaurantId(),
+                SlotOccupancyRepository.slotStart(requestDto.getStartsAt()));
+        SlotQueue queue = queues.computeIfAbsent(key, SlotQueue::new);
+        queue.requests.add(new Pending(requestDto, outcome));
+        queue.schedule();
+        return trackingId;
+    }
+
+    public BookingRequestStatusDto getStatus(UUID trackingId) {
+        CompletableFuture<BatchReservationResultDto> outcome = outcome(trackingId);
+        if (!outcome.isDone()) {
+            return BookingRequestStatusDto.pending(trackingId);
+        }
+        return outcome.isCompletedExceptionally() ? BookingRequestStatusDto.failed(trackingId)
+                : BookingRequestStatusDto.of(trackingId, outcome.join());
+    }
+
+    // Completes with the outcome, or with the pending status once wait has passed
+    public CompletableFuture<BookingRequestStatusDto> awaitStatus(UUID trackingId, Duration wait) {
+        return outcome(trackingId)
+                .handle((result, ex) -> ex == null ? BookingRequestStatusDto.of(trackingId, result)
+                        : BookingRequestStatusDto.failed(trackingId))
+                .completeOnTimeout(BookingRequestStatusDto.pending(trackingId), wait.toMillis(),
+                        TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        // Let running drains finish their queues while the data source is still open
+        if (worker instanceof ExecutorService executorService) {
+            executorService.close();
+        }
+    }
+
+    private CompletableFuture<BatchReservationResultDto> outcome(UUID trackingId) {
+        CompletableFuture<BatchReservationResultDto> outcome = outcomes.getIfPresent(trackingId);
+        if (outcome == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Booking request %s not found".formatted(trackingId));
+        }
+        return outcome;
+    }
+
+    private record SlotKey(Long restaurantId, OffsetDateTime slotStart) {
+    }
+
+    private record Pending(ReservationRequestDto request, CompletableFuture<BatchReservationResultDto> outcome) {
+    }
+
+    private final class SlotQueue {
+
+        private final SlotKey key;
+        private final Queue<Pending> requests = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private SlotQueue(SlotKey key) {
+            this.key = key;
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                worker.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                List<Pending> batch = new ArrayList<>(maxBatch);
+                Pending next;
+                while ((next = requests.poll()) != null) {
+                    batch.add(next);
+                    if (batch.size() == maxBatch || requests.isEmpty()) {
+                        commit(batch);
+                        batch = new ArrayList<>(maxBatch);
+                    }
+                }
+                commit(batch);
+            } finally {
+                draining.set(false);
+            }
+            if (!requests.isEmpty()) {
+                // A request added after the last poll but before the flag was cleared
+                schedule();
+            } else {
+                // A submit that still holds this queue schedules its own drain, so removal is safe
+                queues.remove(key, this);
+            }
+        }
+
+        private void commit(List<Pending> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            queued.addAndGet(-batch.size());
+            List<BatchReservationResultDto> results;
+            // Each commit holds a connection; never have more of them waiting on the pool than it holds
+            drainPermits.acquireUninterruptibly();
+            try {
+                results = reservationService.createReservations(batch.stream().map(Pending::request).toList());
+            } catch (RuntimeException ex) {
+                // Nothing was committed; the requests were not refused, so the client may resend them
+                log.warn("Booking batch for restaurant {} at {} failed", key.restaurantId(), key.slotStart(), ex);
+                batch.forEach(pending -> pending.outcome().completeExceptionally(ex));
+                return;
+            } finally {
+                drainPermits.release();
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).outcome().complete(results.get(i));
+            }
+        }
+    }
+}
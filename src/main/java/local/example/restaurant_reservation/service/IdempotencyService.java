@@ -0,0 +1,117 @@
+package local.example.restaurant_reservation.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import local.example.restaurant_reservation.cache.IdempotencyCache;
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import local.example.restaurant_reservation.dto.ReservationResponseDto;
+import local.example.restaurant_reservation.repository.IdempotencyKeyRepository;
+import local.example.restaurant_reservation.repository.IdempotencyKeyRepository.StoredResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Bookings made with an Idempotency-Key. The key is claimed in the booking's own transaction, so
+ * a failed booking leaves it free for the retry, and a concurrent duplicate waits for the first
+ * request and then replays its response instead of booking again. Replays come from
+ * {@link IdempotencyCache} when possible and never touch the slot. Keys are kept for
+ * {@code retention}.
+ */
+@Service
+public class IdempotencyService {
+
+    private final ReservationService reservationService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    public IdempotencyService(ReservationService reservationService,
+            IdempotencyKeyRepository idempotencyKeyRepository, IdempotencyCache idempotencyCache,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${reservation.idempotency.retention:PT24H}") Duration retention) {
+        this.reservationService = reservationService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+    }
+
+    public ReservationResponseDto createReservation(String idempotencyKey, ReservationRequestDto requestDto) {
+        String requestHash = hash(requestDto);
+        IdempotencyCache.Entry entry = idempotencyCache.get(idempotencyKey);
+        if (entry == null) {
+            entry = transactionTemplate.execute(status -> claimAndBook(idempotencyKey, requestHash, requestDto));
+            // Only reached once the transaction has committed
+            idempotencyCache.put(idempotencyKey, entry);
+        }
+        if (!entry.requestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        return entry.response();
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        idempotencyKeyRepository.deleteBefore(OffsetDateTime.now(ZoneOffset.UTC).minus(retention));
+    }
+
+    private IdempotencyCache.Entry claimAndBook(String idempotencyKey, String requestHash,
+            ReservationRequestDto requestDto) {
+        if (!idempotencyKeyRepository.claim(idempotencyKey, requestHash)) {
+            // Taken by a committed booking, possibly one this claim just waited for
+            StoredResponse stored = idempotencyKeyRepository.find(idempotencyKey);
+            if (stored == null || stored.response() == null) {
+                throw new IllegalStateException("Idempotency-Key %s is being released, retry".formatted(
+                        idempotencyKey));
+            }
+            return new IdempotencyCache.Entry(stored.requestHash(), read(stored.response()));
+        }
+        ReservationResponseDto created = reservationService.createReservation(requestDto);
+        idempotencyKeyRepository.complete(idempotencyKey, write(created));
+        return new IdempotencyCache.Entry(requestHash, created);
+    }
+
+    private String hash(ReservationRequestDto requestDto) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(requestDto)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String write(ReservationResponseDto response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private ReservationResponseDto read(String response) {
+        try {
+            return objectMapper.readValue(response, ReservationResponseDto.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
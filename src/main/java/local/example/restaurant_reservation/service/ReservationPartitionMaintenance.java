@@ -0,0 +1,82 @@
+package local.example.restaurant_reservation.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import local.example.restaurant_reservation.repository.ReservationPartitionRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of {@code reservation} in line with {@link ReservationWindow}:
+ * creates the upcoming months and moves months past retention to the archive schema, together
+ * with their slot occupancy rows. Runs at startup and then on a schedule; concurrent instances
+ * take turns on an advisory lock, so the work is done once.
+ */
+@Component
+public class ReservationPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationPartitionMaintenance.class);
+
+    private final ReservationPartitionRepository partitionRepository;
+    private final SlotOccupancyRepository slotOccupancyRepository;
+    private final ReservationWindow reservationWindow;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservationPartitionMaintenance(ReservationPartitionRepository partitionRepository,
+            SlotOccupancyRepository slotOccupancyRepository, ReservationWindow reservationWindow,
+            PlatformTransactionManager transactionManager) {
+        this.partitionRepository = partitionRepository;
+        this.slotOccupancyRepository = slotOccupancyRepository;
+        this.reservationWindow = reservationWindow;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${reservation.partitions.maintenance-cron:0 30 3 * * *}", zone = "UTC")
+    public void maintain() {
+        YearMonth firstRetained = reservationWindow.firstRetainedMonth();
+        // DDL is transactional in Postgres, so a failed run leaves the partitions as they were
+        List<YearMonth> attached = transactionTemplate.execute(status -> {
+            partitionRepository.lockMaintenance();
+            List<YearMonth> months = partitionRepository.findMonths();
+            for (YearMonth month = reservationWindow.currentMonth();
+                    !month.isAfter(reservationWindow.lastMonth()); month = month.plusMonths(1)) {
+                if (!months.contains(month)) {
+                    partitionRepository.createMonth(month);
+                }
+            }
+            slotOccupancyRepository.deleteBefore(ReservationWindow.monthStart(firstRetained));
+            return months;
+        });
+        // One short transaction per month, so the exclusive lock taken by the detach is not held
+        // while the other work commits
+        for (YearMonth month : attached) {
+            if (month.isBefore(firstRetained)) {
+                archive(month);
+            }
+        }
+    }
+
+    private void archive(YearMonth month) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                partitionRepository.lockMaintenance();
+                if (partitionRepository.findMonths().contains(month)) {
+                    partitionRepository.archiveMonth(month);
+                }
+            });
+        } catch (DataAccessException ex) {
+            // Typically the lock timeout; the month is still attached and the next run retries it
+            log.warn("Could not archive reservation partition for {}", month, ex);
+        }
+    }
+}
@@ -1,55 +1,165 @@
 package local.example.restaurant_reservation.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import local.example.restaurant_reservation.cache.CustomerIdCache;
+import local.example.restaurant_reservation.dto.BatchReservationResultDto;
+import local.example.restaurant_reservation.dto.CursorPage;
+import local.example.restaurant_reservation.dto.PageCursor;
 import local.example.restaurant_reservation.dto.ReservationRequestDto;
 import local.example.restaurant_reservation.dto.ReservationResponseDto;
 import local.example.restaurant_reservation.dto.ReservationStatusUpdateRequestDto;
-import local.example.restaurant_reservation.model.Customer;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
 import local.example.restaurant_reservation.model.Reservation;
-import local.example.restaurant_reservation.repository.CustomerRepository;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
 import local.example.restaurant_reservation.repository.ReservationRepository;
+import local.example.restaurant_reservation.repository.ReservationRepository.StatusChange;
 import local.example.restaurant_reservation.repository.RestaurantRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository.Occupancy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ReservationService {
 
+    private static final String NOT_ENOUGH_TABLES = "Not enough tables available for the requested slot";
+
     private final ReservationRepository reservationRepository;
-    private final CustomerRepository customerRepository;
+    private final CustomerIdCache customerIdCache;
     private final RestaurantRepository restaurantRepository;
+    private final SlotOccupancyRepository slotOccupancyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate savepointTemplate;
+    private final ObjectMapper objectMapper;
+    private final BookingMetrics bookingMetrics;
+    private final ReservationWindow reservationWindow;
 
     public ReservationService(ReservationRepository reservationRepository,
-            CustomerRepository customerRepository, RestaurantRepository restaurantRepository) {
+            CustomerIdCache customerIdCache, RestaurantRepository restaurantRepository,
+            SlotOccupancyRepository slotOccupancyRepository, ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+            BookingMetrics bookingMetrics, ReservationWindow reservationWindow) {
         this.reservationRepository = reservationRepository;
-        this.customerRepository = customerRepository;
+        this.customerIdCache = customerIdCache;
         this.restaurantRepository = restaurantRepository;
+        this.slotOccupancyRepository = slotOccupancyRepository;
+        this.eventPublisher = eventPublisher;
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.objectMapper = objectMapper;
+        this.bookingMetrics = bookingMetrics;
+        this.reservationWindow = reservationWindow;
     }
 
     @Transactional
     public ReservationResponseDto createReservation(ReservationRequestDto requestDto) {
-        var restaurant = restaurantRepository.findByIdForUpdate(requestDto.getRestaurantId());
-        Customer customer;
+        Long restaurantId = requestDto.getRestaurantId();
+        Reservation saved;
         try {
-            customer = customerRepository.findByEmail(requestDto.getCustomerEmail());
-        } catch (IllegalArgumentException ex) {
-            customer = customerRepository.add(requestDto.toCustomer());
+            saved = book(requestDto);
+        } catch (RuntimeException ex) {
+            bookingMetrics.failed(restaurantId, ex);
+            throw ex;
+        }
+        if (saved == null) {
+            bookingMetrics.rejected(restaurantId);
+            throw new IllegalStateException(NOT_ENOUGH_TABLES);
         }
+        eventPublisher.publishEvent(new ReservationChangedEvent(saved.getRestaurantId(), saved.getStartsAt()));
+
+        return ReservationResponseDto.fromEntity(saved);
+    }
+
+    @Transactional
+    public List<BatchReservationResultDto> createReservations(List<ReservationRequestDto> requestDtos) {
+        BatchReservationResultDto[] results = new BatchReservationResultDto[requestDtos.size()];
 
-        int reservedTables = reservationRepository.sumReservedTablesForSlot(restaurant.getId(),
-                requestDto.getStartsAt());
-        if (reservedTables + requestDto.getTableCount() > restaurant.getTotalTables()) {
-            throw new IllegalStateException("Not enough tables available for the requested slot");
+        // Group request indexes by restaurant and hour slot; slots are locked in (restaurant, slot)
+        // order so concurrent batches cannot deadlock each other
+        Map<Long, Map<OffsetDateTime, List<Integer>>> groups = new TreeMap<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            ReservationRequestDto requestDto = requestDtos.get(i);
+            groups.computeIfAbsent(requestDto.getRestaurantId(), id -> new TreeMap<>())
+                    .computeIfAbsent(SlotOccupancyRepository.slotStart(requestDto.getStartsAt()),
+                            slot -> new ArrayList<>())
+                    .add(i);
         }
 
-        Reservation reservation = requestDto.toReservation(customer.getId());
-        Reservation saved = reservationRepository.add(reservation);
+        Map<String, Long> customerIds = new HashMap<>();
+        List<Reservation> toInsert = new ArrayList<>();
+        List<Integer> insertedIndexes = new ArrayList<>();
+        for (var restaurantGroup : groups.entrySet()) {
+            Long restaurantId = restaurantGroup.getKey();
+            for (var slotGroup : restaurantGroup.getValue().entrySet()) {
+                Occupancy occupancy = slotOccupancyRepository.lock(restaurantId, slotGroup.getKey());
+                if (occupancy == null) {
+                    String error = "Restaurant %d not found".formatted(restaurantId);
+                    restaurantGroup.getValue().values().forEach(indexes -> indexes
+                            .forEach(i -> results[i] = BatchReservationResultDto.failed(i, error)));
+                    break;
+                }
+                // Admit in request order until the slot is full, then record the total in one update
+                int freeTables = occupancy.freeTables();
+                int admittedTables = 0;
+                for (int index : slotGroup.getValue()) {
+                    ReservationRequestDto requestDto = requestDtos.get(index);
+                    Long customerId;
+                    try {
+                        customerId = resolveCustomerId(requestDto, customerIds);
+                    } catch (DataAccessException ex) {
+                        bookingMetrics.failed(restaurantId, ex);
+                        results[index] = BatchReservationResultDto.failed(index, ex.getMessage());
+                        continue;
+                    }
+                    if (requestDto.getTableCount() > freeTables - admittedTables) {
+                        bookingMetrics.rejected(restaurantId);
+                        results[index] = BatchReservationResultDto.failed(index, NOT_ENOUGH_TABLES);
+                        continue;
+                    }
+                    admittedTables += requestDto.getTableCount();
+                    toInsert.add(requestDto.toReservation(customerId));
+                    insertedIndexes.add(index);
+                }
+                if (admittedTables > 0) {
+                    bookingMetrics.admitted(restaurantId);
+                    slotOccupancyRepository.add(restaurantId, slotGroup.getKey(), admittedTables);
+                }
+            }
+        }
 
-        return ReservationResponseDto.fromEntity(saved);
+        List<Reservation> saved = reservationRepository.addAll(toInsert);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = insertedIndexes.get(i);
+            results[index] = BatchReservationResultDto.succeeded(index,
+                    ReservationResponseDto.fromEntity(saved.get(i)));
+        }
+        saved.stream()
+                .map(r -> new ReservationChangedEvent(r.getRestaurantId(), r.getStartsAt()))
+                .distinct()
+                .forEach(eventPublisher::publishEvent);
+        return List.of(results);
     }
 
+    @Transactional(readOnly = true)
     public ReservationResponseDto getReservation(Long reservationId) {
         return ReservationResponseDto.fromEntity(reservationRepository.findById(reservationId));
     }
@@ -57,18 +167,105 @@ public class ReservationService {
     @Transactional
     public ReservationResponseDto updateStatus(Long reservationId,
             ReservationStatusUpdateRequestDto statusRequest) {
-        Reservation reservation = reservationRepository.findByIdForUpdate(reservationId);
-        Reservation updated = reservation.toBuilder()
-                .status(statusRequest.getStatus())
-                .build();
-        reservationRepository.update(updated);
+        // Only clients that send the version they saw get optimistic locking
+        StatusChange change = reservationRepository.updateStatus(reservationId, statusRequest.getVersion(),
+                statusRequest.getStatus());
+        Reservation updated = change.updated();
+        int delta = reservedTables(updated.getStatus(), updated.getTableCount())
+                - reservedTables(change.previousStatus(), updated.getTableCount());
+        if (delta > 0) {
+            // Reinstating a cancelled booking needs the room back; failing rolls the status back too
+            if (!slotOccupancyRepository.tryReserve(updated.getRestaurantId(), updated.getStartsAt(), delta)) {
+                throw new IllegalStateException(NOT_ENOUGH_TABLES);
+            }
+        } else if (delta < 0) {
+            slotOccupancyRepository.add(updated.getRestaurantId(), updated.getStartsAt(), delta);
+        }
+        eventPublisher.publishEvent(new ReservationChangedEvent(updated.getRestaurantId(), updated.getStartsAt()));
         return ReservationResponseDto.fromEntity(updated);
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationResponseDto> listReservations(Long restaurantId, LocalDate date, int page, int size) {
         List<Reservation> reservations = date == null
-                ? reservationRepository.findByRestaurant(restaurantId, page, size)
+                ? reservationRepository.findByRestaurant(restaurantId, reservationWindow.start(),
+                        reservationWindow.end(), page, size)
                 : reservationRepository.findByRestaurantAndDate(restaurantId, date, page, size);
         return reservations.stream().map(ReservationResponseDto::fromEntity).toList();
     }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ReservationResponseDto> listReservationsAfter(Long restaurantId, LocalDate date,
+            String cursor, int size) {
+        PageCursor after = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page exists
+        // A date narrows the range to one day (one partition); otherwise the current window
+        OffsetDateTime from = date == null
+                ? reservationWindow.start()
+                : date.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = date == null ? reservationWindow.end() : from.plusDays(1);
+        List<Reservation> reservations = reservationRepository.findByRestaurantAfter(restaurantId, from, to,
+                after == null ? null : after.sortKeyAsInstant().atOffset(ZoneOffset.UTC),
+                after == null ? null : after.id(), size + 1);
+        String nextCursor = null;
+        if (reservations.size() > size) {
+            reservations = reservations.subList(0, size);
+            Reservation last = reservations.getLast();
+            nextCursor = new PageCursor(last.getStartsAt().toInstant().toString(), last.getId()).encode();
+        }
+        return new CursorPage<>(reservations.stream().map(ReservationResponseDto::fromEntity).toList(),
+                nextCursor);
+    }
+
+    // Runs in a read-only transaction so the driver can use a server-side cursor
+    @Transactional(readOnly = true)
+    public void exportReservations(Long restaurantId, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            reservationRepository.streamByRestaurant(restaurantId, reservation -> {
+                try {
+                    generator.writeObject(ReservationResponseDto.fromEntity(reservation));
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    // Returns the inserted reservation, or null when the slot has no room left
+    private Reservation book(ReservationRequestDto requestDto) {
+        Long restaurantId = requestDto.getRestaurantId();
+        Long customerId = bookingMetrics.time("customer", restaurantId,
+                () -> customerIdCache.findOrCreate(requestDto.toCustomer()));
+        // One conditional upsert checks and takes the capacity; its row lock makes only bookings
+        // for the same slot wait on each other
+        boolean admitted = bookingMetrics.time("capacity", restaurantId,
+                () -> slotOccupancyRepository.tryReserve(restaurantId, requestDto.getStartsAt(),
+                        requestDto.getTableCount()));
+        if (!admitted) {
+            // Tell a missing restaurant (404) apart from a full slot
+            restaurantRepository.findById(restaurantId);
+            return null;
+        }
+        bookingMetrics.admitted(restaurantId);
+        return bookingMetrics.time("insert", restaurantId,
+                () -> reservationRepository.add(requestDto.toReservation(customerId)));
+    }
+
+    private static int reservedTables(ReservationStatusEnum status, int tableCount) {
+        return status == ReservationStatusEnum.CANCELLED ? 0 : tableCount;
+    }
+
+    private Long resolveCustomerId(ReservationRequestDto requestDto, Map<String, Long> customerIds) {
+        String email = String.valueOf(requestDto.getCustomerEmail()).toLowerCase(Locale.ROOT);
+        Long customerId = customerIds.get(email);
+        if (customerId == null) {
+            // A savepoint keeps a failed customer insert (e.g. a taken phone) from aborting the batch
+            customerId = savepointTemplate.execute(
+                    status -> customerIdCache.findOrCreate(requestDto.toCustomer()));
+            customerIds.put(email, customerId);
+        }
+        return customerId;
+    }
 }
@@ -0,0 +1,64 @@
+package local.example.restaurant_reservation.service;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The months of reservations kept in monthly partitions of the {@code reservation} table, in UTC.
+ * Partitions run from {@code retain-months} before the current month to {@code months-ahead}
+ * after it. Undated listings only look from the current month on, so the planner prunes every
+ * older partition.
+ */
+@Component
+public class ReservationWindow {
+
+    private final int monthsAhead;
+    private final int retainMonths;
+    private final Clock clock;
+
+    @Autowired
+    public ReservationWindow(@Value("${reservation.partitions.months-ahead:12}") int monthsAhead,
+            @Value("${reservation.partitions.retain-months:12}") int retainMonths) {
+        this(monthsAhead, retainMonths, Clock.systemUTC());
+    }
+
+    ReservationWindow(int monthsAhead, int retainMonths, Clock clock) {
+        this.monthsAhead = monthsAhead;
+        this.retainMonths = retainMonths;
+        this.clock = clock;
+    }
+
+    public YearMonth currentMonth() {
+        return YearMonth.now(clock.withZone(ZoneOffset.UTC));
+    }
+
+    // Last month that gets a partition ahead of time
+    public YearMonth lastMonth() {
+        return currentMonth().plusMonths(monthsAhead);
+    }
+
+    // Partitions for months before this one are moved to the archive
+    public YearMonth firstRetainedMonth() {
+        return currentMonth().minusMonths(retainMonths);
+    }
+
+    // Lower bound for listings without a date
+    public OffsetDateTime start() {
+        return monthStart(currentMonth());
+    }
+
+    // Upper bound (exclusive) for listings without a date: the end of the last partition
+    public OffsetDateTime end() {
+        return monthStart(lastMonth().plusMonths(1));
+    }
+
+    public static OffsetDateTime monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+}
@@ -1,11 +1,21 @@
 package local.example.restaurant_reservation.service;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
+import local.example.restaurant_reservation.cache.ResourceVersions;
+import local.example.restaurant_reservation.cache.RestaurantCache;
+import local.example.restaurant_reservation.dto.CursorPage;
+import local.example.restaurant_reservation.dto.PageCursor;
 import local.example.restaurant_reservation.dto.RestaurantRequestDto;
 import local.example.restaurant_reservation.dto.RestaurantResponseDto;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
 import local.example.restaurant_reservation.model.Restaurant;
 import local.example.restaurant_reservation.repository.RestaurantRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,31 +23,78 @@ import org.springframework.transaction.annotation.Transactional;
 public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
+    private final SlotOccupancyRepository slotOccupancyRepository;
+    private final RestaurantCache restaurantCache;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public RestaurantService(RestaurantRepository restaurantRepository) {
+    public RestaurantService(RestaurantRepository restaurantRepository,
+            SlotOccupancyRepository slotOccupancyRepository, RestaurantCache restaurantCache,
+            ResourceVersions resourceVersions, ApplicationEventPublisher eventPublisher) {
         this.restaurantRepository = restaurantRepository;
+        this.slotOccupancyRepository = slotOccupancyRepository;
+        this.restaurantCache = restaurantCache;
+        this.resourceVersions = resourceVersions;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<RestaurantResponseDto> listRestaurants(int page, int size) {
         return restaurantRepository.findAll(page, size).stream().map(RestaurantResponseDto::fromEntity)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<RestaurantResponseDto> listRestaurantsAfter(String cursor, int size) {
+        PageCursor after = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page exists
+        List<Restaurant> restaurants = restaurantRepository.findAllAfter(
+                after == null ? null : after.sortKey(), after == null ? null : after.id(), size + 1);
+        String nextCursor = null;
+        if (restaurants.size() > size) {
+            restaurants = restaurants.subList(0, size);
+            Restaurant last = restaurants.getLast();
+            nextCursor = new PageCursor(last.getName(), last.getId()).encode();
+        }
+        return new CursorPage<>(restaurants.stream().map(RestaurantResponseDto::fromEntity).toList(),
+                nextCursor);
+    }
+
+    public String restaurantETag(Long restaurantId) {
+        return resourceVersions.restaurantETag(restaurantId);
+    }
+
+    @Transactional(readOnly = true)
     public RestaurantResponseDto getRestaurant(Long restaurantId) {
-        Restaurant restaurant = restaurantRepository.findById(restaurantId);
+        Restaurant restaurant = restaurantCache.get(restaurantId);
         return RestaurantResponseDto.fromEntity(restaurant);
     }
 
     public RestaurantResponseDto createRestaurant(RestaurantRequestDto requestDto) {
         Restaurant toCreate = RestaurantRequestDto.toEntity(requestDto);
         Restaurant created = restaurantRepository.add(toCreate);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(created.getId()));
         return RestaurantResponseDto.fromEntity(created);
     }
 
     @Transactional
     public RestaurantResponseDto updateRestaurant(Long restaurantId,
                                                   RestaurantRequestDto requestDto) {
+        // The slot lock has to come before the row lock, so compare against an unlocked read first
+        if (!requestDto.getTotalTables().equals(restaurantRepository.findById(restaurantId).getTotalTables())) {
+            slotOccupancyRepository.lockForCapacityChange();
+        }
         Restaurant existing = restaurantRepository.findByIdForUpdate(restaurantId);
+        if (!requestDto.getTotalTables().equals(existing.getTotalTables())) {
+            try {
+                slotOccupancyRepository.updateCapacity(restaurantId, requestDto.getTotalTables(),
+                        OffsetDateTime.now(ZoneOffset.UTC));
+            } catch (DataIntegrityViolationException ex) {
+                throw new IllegalStateException(
+                        "Upcoming slots already hold more than %d tables".formatted(requestDto.getTotalTables()),
+                        ex);
+            }
+        }
         existing.setName(requestDto.getName());
         existing.setAddress(requestDto.getAddress());
         existing.setPhone(requestDto.getPhone());
@@ -45,6 +102,7 @@ public class RestaurantService {
         existing.setCloseTime(requestDto.getCloseTime());
         existing.setTotalTables(requestDto.getTotalTables());
         Restaurant updated = restaurantRepository.update(existing);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId));
         return RestaurantResponseDto.fromEntity(updated);
     }
 }
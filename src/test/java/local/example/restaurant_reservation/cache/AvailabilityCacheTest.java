@@ -0,0 +1,68 @@
+package local.example.restaurant_reservation.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.ResourcelessTransactionManager;
+
+class AvailabilityCacheTest {
+
+    private AvailabilityCache cache;
+    private AtomicInteger loads;
+    private LocalDate date;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AvailabilityCache(new PrimaryReads(new ResourcelessTransactionManager()),
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+        date = LocalDate.now(ZoneOffset.UTC).plusDays(3);
+    }
+
+    @Test
+    void onReservationChanged_InvalidatesOnlyThatDay_WhenSlotChanges() {
+        // given
+        cache.get(1L, date, this::load);
+        cache.get(1L, date.plusDays(1), this::load);
+
+        // when
+        cache.onReservationChanged(new ReservationChangedEvent(1L, date.atTime(19, 0).atOffset(ZoneOffset.UTC)));
+        cache.get(1L, date, this::load);
+        cache.get(1L, date.plusDays(1), this::load);
+
+        // then
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void onRestaurantChanged_InvalidatesAllDays_WhenRestaurantUpdated() {
+        // given
+        cache.get(1L, date, this::load);
+        cache.get(1L, date.plusDays(1), this::load);
+        cache.get(2L, date, this::load);
+
+        // when
+        cache.onRestaurantChanged(new RestaurantChangedEvent(1L));
+        cache.get(1L, date, this::load);
+        cache.get(1L, date.plusDays(1), this::load);
+        cache.get(2L, date, this::load);
+
+        // then
+        assertThat(loads).hasValue(5);
+    }
+
+    private AvailabilityResponseDto load() {
+        loads.incrementAndGet();
+        return new AvailabilityResponseDto();
+    }
+}
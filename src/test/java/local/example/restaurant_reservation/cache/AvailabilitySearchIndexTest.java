@@ -0,0 +1,122 @@
+package local.example.restaurant_reservation.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.ResourcelessTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilitySearchIndexTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private AvailabilitySearchIndex index;
+
+    private Instant slot;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilitySearchIndex(restaurantRepository,
+                new PrimaryReads(new ResourcelessTransactionManager()), new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(10));
+        slot = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Map<Long, Integer> freeTables = new LinkedHashMap<>();
+        freeTables.put(1L, 4);
+        freeTables.put(2L, 9);
+        freeTables.put(3L, 1);
+        freeTables.put(4L, 4);
+        lenient().when(restaurantRepository.findFreeTablesAt(slot, null)).thenReturn(freeTables);
+    }
+
+    @Test
+    void search_ReturnsMostFreeFirst_WhenPagedWithCursor() {
+        // when
+        List<AvailabilitySearchIndex.Entry> first = index.search(slot, 2, null, 2);
+        List<AvailabilitySearchIndex.Entry> second = index.search(slot, 2, first.getLast(), 2);
+
+        // then
+        assertThat(first).containsExactly(new AvailabilitySearchIndex.Entry(9, 2L),
+                new AvailabilitySearchIndex.Entry(4, 1L));
+        assertThat(second).containsExactly(new AvailabilitySearchIndex.Entry(4, 4L));
+        verify(restaurantRepository, times(1)).findFreeTablesAt(slot, null);
+    }
+
+    @Test
+    void onReservationChanged_RefreshesOnlyThatRestaurant_WhenSlotIndexed() {
+        // given
+        index.search(slot, 1, null, 10);
+        when(restaurantRepository.findFreeTablesAt(slot, 2L)).thenReturn(Map.of(2L, 0));
+
+        // when
+        index.onReservationChanged(new ReservationChangedEvent(2L, slot.plus(30, ChronoUnit.MINUTES)
+                .atOffset(ZoneOffset.UTC)));
+
+        // then
+        assertThat(index.search(slot, 1, null, 10)).extracting(AvailabilitySearchIndex.Entry::restaurantId)
+                .containsExactly(1L, 4L, 3L);
+        verify(restaurantRepository, times(1)).findFreeTablesAt(slot, null);
+    }
+
+    @Test
+    void onRestaurantChanged_RefreshesOnlyThatRestaurant_WhenCapacityChanged() {
+        // given
+        index.search(slot, 1, null, 10);
+        when(restaurantRepository.findFreeTablesOf(3L, Set.of(slot))).thenReturn(Map.of(slot, 12));
+
+        // when
+        index.onRestaurantChanged(new RestaurantChangedEvent(3L));
+
+        // then
+        assertThat(index.search(slot, 1, null, 10)).extracting(AvailabilitySearchIndex.Entry::restaurantId)
+                .containsExactly(3L, 2L, 1L, 4L);
+        verify(restaurantRepository, times(1)).findFreeTablesAt(slot, null);
+    }
+
+    @Test
+    void onRestaurantChanged_DropsRestaurant_WhenNoLongerOpenAtSlot() {
+        // given
+        index.search(slot, 1, null, 10);
+        when(restaurantRepository.findFreeTablesOf(2L, Set.of(slot))).thenReturn(Map.of());
+
+        // when
+        index.onRestaurantChanged(new RestaurantChangedEvent(2L));
+
+        // then
+        assertThat(index.search(slot, 1, null, 10)).extracting(AvailabilitySearchIndex.Entry::restaurantId)
+                .containsExactly(1L, 4L, 3L);
+    }
+
+    @Test
+    void onRestaurantChanged_SkipsQuery_WhenNothingIndexed() {
+        // when
+        index.onRestaurantChanged(new RestaurantChangedEvent(2L));
+
+        // then
+        verify(restaurantRepository, never()).findFreeTablesOf(anyLong(), anyCollection());
+    }
+}
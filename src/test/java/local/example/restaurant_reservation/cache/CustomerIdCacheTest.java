@@ -0,0 +1,89 @@
+package local.example.restaurant_reservation.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.model.Customer;
+import local.example.restaurant_reservation.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerIdCacheTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerIdCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CustomerIdCache(customerRepository, new SimpleMeterRegistry(), 100);
+        when(customerRepository.findOrCreate(any(Customer.class))).thenReturn(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void findOrCreate_HitsRepositoryOnce_WhenEmailRepeatsInAnyCase() {
+        // when
+        Long first = cache.findOrCreate(customer("Guest@Example.com"));
+        Long second = cache.findOrCreate(customer("guest@example.COM"));
+
+        // then
+        assertThat(first).isEqualTo(7L);
+        assertThat(second).isEqualTo(7L);
+        verify(customerRepository, times(1)).findOrCreate(any(Customer.class));
+    }
+
+    @Test
+    void findOrCreate_CachesIdAfterCommit_WhenTransactionActive() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        cache.findOrCreate(customer("guest@example.com"));
+        cache.findOrCreate(customer("guest@example.com"));
+
+        // when
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.findOrCreate(customer("guest@example.com"));
+
+        // then
+        verify(customerRepository, times(2)).findOrCreate(any(Customer.class));
+    }
+
+    @Test
+    void findOrCreate_NeverCachesId_WhenTransactionRollsBack() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        cache.findOrCreate(customer("guest@example.com"));
+
+        // when
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        cache.findOrCreate(customer("guest@example.com"));
+        cache.findOrCreate(customer("guest@example.com"));
+
+        // then
+        verify(customerRepository, times(2)).findOrCreate(any(Customer.class));
+    }
+
+    private static Customer customer(String email) {
+        return Customer.builder().name("Guest").phone("000").email(email).build();
+    }
+}
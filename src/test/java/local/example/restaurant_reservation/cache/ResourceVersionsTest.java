@@ -0,0 +1,102 @@
+package local.example.restaurant_reservation.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResourceVersionsTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-02T12:00:00Z"), ZoneOffset.UTC);
+
+    private ResourceVersions versions;
+    private LocalDate date;
+
+    @BeforeEach
+    void setUp() {
+        versions = new ResourceVersions(100, Duration.ofSeconds(30), CLOCK);
+        date = LocalDate.of(2026, 3, 5);
+    }
+
+    @Test
+    void availabilityETag_ChangesOnlyForThatDay_WhenReservationChanges() {
+        // given
+        String day = versions.availabilityETag(1L, date, date);
+        String nextDay = versions.availabilityETag(1L, date.plusDays(1), date.plusDays(1));
+        String restaurant = versions.restaurantETag(1L);
+
+        // when
+        versions.onReservationChanged(new ReservationChangedEvent(1L, date.atTime(19, 0).atOffset(ZoneOffset.UTC)));
+
+        // then
+        assertThat(versions.availabilityETag(1L, date, date)).isNotEqualTo(day);
+        assertThat(versions.availabilityETag(1L, date.plusDays(1), date.plusDays(1))).isEqualTo(nextDay);
+        assertThat(versions.restaurantETag(1L)).isEqualTo(restaurant);
+    }
+
+    @Test
+    void availabilityETag_ChangesForRange_WhenAnyDayInsideChanges() {
+        // given
+        String range = versions.availabilityETag(1L, date, date.plusDays(6));
+
+        // when
+        versions.onReservationChanged(new ReservationChangedEvent(1L, date.plusDays(4).atTime(12, 0)
+                .atOffset(ZoneOffset.UTC)));
+
+        // then
+        assertThat(versions.availabilityETag(1L, date, date.plusDays(6))).isNotEqualTo(range);
+    }
+
+    @Test
+    void availabilityETag_ChangesForEveryDay_WhenRestaurantChanges() {
+        // given
+        String day = versions.availabilityETag(1L, date, date);
+        String restaurant = versions.restaurantETag(1L);
+        String other = versions.restaurantETag(2L);
+
+        // when
+        versions.onRestaurantChanged(new RestaurantChangedEvent(1L));
+
+        // then
+        assertThat(versions.availabilityETag(1L, date, date)).isNotEqualTo(day);
+        assertThat(versions.restaurantETag(1L)).isNotEqualTo(restaurant);
+        assertThat(versions.restaurantETag(2L)).isEqualTo(other);
+    }
+
+    @Test
+    void restaurantETag_StillChanges_WhenItsCounterWasEvicted() {
+        // given
+        ResourceVersions small = new ResourceVersions(1, Duration.ofSeconds(30), CLOCK);
+        String before = small.restaurantETag(1L);
+
+        // when
+        small.onRestaurantChanged(new RestaurantChangedEvent(1L));
+        for (long id = 2; id < 50; id++) {
+            small.onRestaurantChanged(new RestaurantChangedEvent(id));
+        }
+
+        // then
+        assertThat(small.restaurantETag(1L)).isNotEqualTo(before);
+    }
+
+    @Test
+    void restaurantETag_RollsOver_WhenStalenessWindowPasses() {
+        // given
+        String before = versions.restaurantETag(1L);
+
+        // when
+        ResourceVersions later = new ResourceVersions(100, Duration.ofSeconds(30),
+                Clock.offset(CLOCK, Duration.ofSeconds(30)));
+
+        // then
+        assertThat(later.restaurantETag(1L).split("-")[1]).isNotEqualTo(before.split("-")[1]);
+    }
+}
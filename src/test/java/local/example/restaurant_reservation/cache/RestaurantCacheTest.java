@@ -0,0 +1,70 @@
+package local.example.restaurant_reservation.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.ResourcelessTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantCacheTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private RestaurantCache cache;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RestaurantCache(restaurantRepository,
+                new PrimaryReads(new ResourcelessTransactionManager()), new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(5));
+        restaurant = Restaurant.builder().id(1L).name("Bistro").openTime(LocalTime.of(10, 0))
+                .closeTime(LocalTime.of(22, 0)).totalTables(8).build();
+    }
+
+    @Test
+    void get_LoadsOnce_WhenVersionUnchanged() {
+        // given
+        when(restaurantRepository.findById(1L)).thenReturn(restaurant);
+
+        // when
+        cache.get(1L);
+        Restaurant cached = cache.get(1L);
+
+        // then
+        assertThat(cached.getName()).isEqualTo("Bistro");
+        verify(restaurantRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void get_Reloads_WhenVersionBumped() {
+        // given
+        Restaurant renamed = restaurant.toBuilder().name("Brasserie").build();
+        when(restaurantRepository.findById(1L)).thenReturn(restaurant, renamed);
+        cache.get(1L);
+
+        // when
+        cache.onRestaurantChanged(new RestaurantChangedEvent(1L));
+        Restaurant reloaded = cache.get(1L);
+
+        // then
+        assertThat(reloaded.getName()).isEqualTo("Brasserie");
+        assertThat(cache.version(1L)).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,63 @@
+package local.example.restaurant_reservation.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPermitDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionPermitDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new ConnectionPermitDataSource(target, 1, Duration.ofMillis(50));
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void getConnection_TimesOut_WhenAllPermitsHeld() throws SQLException {
+        // given
+        dataSource.getConnection();
+
+        // when + then
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    void close_ReleasesPermitOnce_WhenClosedTwice() throws SQLException {
+        // given
+        Connection held = dataSource.getConnection();
+
+        // when
+        held.close();
+        held.close();
+
+        // then
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+}
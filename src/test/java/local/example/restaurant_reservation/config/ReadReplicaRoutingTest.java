@@ -0,0 +1,74 @@
+package local.example.restaurant_reservation.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.UUID;
+
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Needs both instances from src/test/resources/docker; the second one is not replicated, so a
+// row written to the primary is visible only when a read is routed there
+@SpringBootTest(properties = "reservation.replica.url=jdbc:postgresql://localhost:15433/restaurant-reservation")
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String name;
+
+    @BeforeEach
+    void setUp() {
+        name = "Replica " + UUID.randomUUID();
+        restaurantRepository.add(Restaurant.builder().name(name).address("Main St 1").phone("000")
+                .openTime(LocalTime.of(9, 0)).closeTime(LocalTime.of(22, 0)).totalTables(10).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+        jdbcTemplate.update("DELETE FROM restaurant WHERE name = :name", new MapSqlParameterSource("name", name));
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsReplica_WhenNotPinned() {
+        // when + then
+        assertThat(countInTransaction(true)).isZero();
+        assertThat(countInTransaction(false)).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsPrimary_WhenPinned() {
+        // given
+        ReadYourWrites.pin();
+
+        // when + then
+        assertThat(countInTransaction(true)).isEqualTo(1);
+    }
+
+    private Integer countInTransaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM restaurant WHERE name = :name", new MapSqlParameterSource("name", name),
+                Integer.class));
+    }
+}
@@ -0,0 +1,60 @@
+package local.example.restaurant_reservation.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T12:00:00Z");
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void doFilter_SetsWindowCookie_WhenRequestWrites() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/reservations");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // then
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getValue()).isEqualTo(Long.toString(NOW.plusSeconds(5).toEpochMilli()));
+    }
+
+    @Test
+    void doFilter_PinsRequest_WhenCookieStillValid() throws Exception {
+        // when + then
+        assertThat(pinnedDuring(NOW.plusSeconds(1))).isTrue();
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+    }
+
+    @Test
+    void doFilter_DoesNotPin_WhenCookieExpired() throws Exception {
+        // when + then
+        assertThat(pinnedDuring(NOW.minusSeconds(1))).isFalse();
+    }
+
+    private boolean pinnedDuring(Instant until) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/reservations/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(until.toEpochMilli())));
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(ReadYourWrites.isPinned()));
+        return pinned.get();
+    }
+}
@@ -0,0 +1,60 @@
+package local.example.restaurant_reservation.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+class RepositoryMetricsConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void postProcess_TimesRepositoryCallsByOutcome_WhenBeanIsRepository() {
+        // given
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        Restaurant restaurant = Restaurant.builder().id(1L).name("Metrics").build();
+        when(jdbcTemplate.queryForObject(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(restaurant)
+                .thenThrow(new EmptyResultDataAccessException(1));
+        RestaurantRepository repository = (RestaurantRepository) new RepositoryMetricsConfig
+                .RepositoryMetricsPostProcessor(() -> meterRegistry)
+                .postProcessAfterInitialization(new RestaurantRepository(jdbcTemplate), "restaurantRepository");
+
+        // when
+        Restaurant found = repository.findById(1L);
+        assertThatThrownBy(() -> repository.findById(2L)).isInstanceOf(EmptyResultDataAccessException.class);
+
+        // then
+        assertThat(found).isSameAs(restaurant);
+        assertThat(meterRegistry.get("reservation.repository").tag("repository", "RestaurantRepository")
+                .tag("method", "findById").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("reservation.repository").tag("method", "findById")
+                .tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void postProcess_LeavesBeanUnwrapped_WhenNotRepository() {
+        // given
+        Object bean = new Object();
+
+        // when
+        Object processed = new RepositoryMetricsConfig.RepositoryMetricsPostProcessor(() -> meterRegistry)
+                .postProcessAfterInitialization(bean, "plain");
+
+        // then
+        assertThat(processed).isSameAs(bean);
+    }
+}
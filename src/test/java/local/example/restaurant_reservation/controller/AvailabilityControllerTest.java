@@ -1,8 +1,12 @@
 package local.example.restaurant_reservation.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -12,12 +16,14 @@ import java.util.List;
 
 import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
 import local.example.restaurant_reservation.dto.AvailabilityResponseDto.SlotAvailability;
+import local.example.restaurant_reservation.service.AvailabilityBroadcaster;
 import local.example.restaurant_reservation.service.AvailabilityService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @WebMvcTest(AvailabilityController.class)
 class AvailabilityControllerTest {
@@ -28,6 +34,9 @@ class AvailabilityControllerTest {
     @MockitoBean
     private AvailabilityService availabilityService;
 
+    @MockitoBean
+    private AvailabilityBroadcaster availabilityBroadcaster;
+
     @Test
     void getAvailability_ReturnsDto_WhenDateProvided() throws Exception {
         // given
@@ -53,4 +62,69 @@ class AvailabilityControllerTest {
 
         verify(availabilityService).getAvailability(restaurantId, date);
     }
+
+    @Test
+    void getAvailability_SetsETag_WhenDateProvided() throws Exception {
+        // given
+        LocalDate date = LocalDate.now().plusDays(2);
+        when(availabilityService.availabilityETag(1L, date)).thenReturn("\"a-1-7\"");
+        when(availabilityService.getAvailability(1L, date)).thenReturn(
+                AvailabilityResponseDto.builder().restaurantId(1L).date(date).slots(List.of()).build());
+
+        // when
+        mockMvc.perform(get("/restaurants/{restaurantId}/availability", 1L).param("date", date.toString()))
+                // then
+                .andExpect(status().isOk()).andExpect(header().string("ETag", "\"a-1-7\""));
+    }
+
+    @Test
+    void getAvailability_Returns304WithoutLoading_WhenETagMatches() throws Exception {
+        // given
+        LocalDate date = LocalDate.now().plusDays(2);
+        when(availabilityService.availabilityETag(1L, date)).thenReturn("\"a-1-7\"");
+
+        // when
+        mockMvc.perform(get("/restaurants/{restaurantId}/availability", 1L).param("date", date.toString())
+                        .header("If-None-Match", "\"a-1-7\""))
+                // then
+                .andExpect(status().isNotModified());
+
+        verify(availabilityService, never()).getAvailability(any(), any());
+    }
+
+    @Test
+    void getAvailabilityRange_ReturnsAllDays_WhenFromAndToProvided() throws Exception {
+        // given
+        Long restaurantId = 1L;
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(1);
+        List<AvailabilityResponseDto> days = List.of(
+                AvailabilityResponseDto.builder().restaurantId(restaurantId).date(from).slots(List.of()).build(),
+                AvailabilityResponseDto.builder().restaurantId(restaurantId).date(to).slots(List.of()).build());
+        when(availabilityService.getAvailability(restaurantId, from, to)).thenReturn(days);
+
+        // when
+        mockMvc
+                .perform(get("/restaurants/{restaurantId}/availability", restaurantId)
+                        .param("from", from.toString()).param("to", to.toString()))
+                // then
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].date").value(from.toString()))
+                .andExpect(jsonPath("$[1].date").value(to.toString()));
+
+        verify(availabilityService).getAvailability(restaurantId, from, to);
+    }
+
+    @Test
+    void streamAvailability_StartsEventStream_WhenDateProvided() throws Exception {
+        // given
+        LocalDate date = LocalDate.now().plusDays(2);
+        when(availabilityBroadcaster.subscribe(1L, date)).thenReturn(new SseEmitter());
+
+        // when
+        mockMvc.perform(get("/restaurants/{restaurantId}/availability/stream", 1L).param("date", date.toString()))
+                // then
+                .andExpect(request().asyncStarted());
+
+        verify(availabilityBroadcaster).subscribe(1L, date);
+    }
 }
@@ -0,0 +1,53 @@
+package local.example.restaurant_reservation.controller;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import local.example.restaurant_reservation.dto.AvailableRestaurantDto;
+import local.example.restaurant_reservation.dto.CursorPage;
+import local.example.restaurant_reservation.service.AvailabilityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(AvailabilitySearchController.class)
+class AvailabilitySearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AvailabilityService availabilityService;
+
+    @Test
+    void searchAvailableRestaurants_ReturnsPageAndCursorHeader_WhenMoreResultsExist() throws Exception {
+        // given
+        OffsetDateTime startsAt = OffsetDateTime.of(2030, 5, 1, 19, 0, 0, 0, ZoneOffset.UTC);
+        AvailableRestaurantDto dto = AvailableRestaurantDto.builder()
+                .restaurantId(3L).name("Bistro").address("Main St 1").availableTables(6).build();
+        when(availabilityService.searchAvailableRestaurants(startsAt, 4, null, 1))
+                .thenReturn(new CursorPage<>(List.of(dto), "next"));
+
+        // when
+        mockMvc
+                .perform(get("/availability/search").param("startsAt", startsAt.toString())
+                        .param("tables", "4").param("size", "1"))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].restaurantId").value(3))
+                .andExpect(jsonPath("$[0].availableTables").value(6))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"));
+
+        verify(availabilityService).searchAvailableRestaurants(startsAt, 4, null, 1);
+    }
+}
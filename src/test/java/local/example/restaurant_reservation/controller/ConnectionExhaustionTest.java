@@ -0,0 +1,61 @@
+package local.example.restaurant_reservation.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Runs the real transactional booking path with its single connection permit held elsewhere
+@SpringBootTest(properties = { "spring.threads.virtual.enabled=true", "reservation.jdbc.connection-permits=1",
+        "reservation.jdbc.permit-timeout=PT0.1S" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConnectionExhaustionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Test
+    void createReservation_Returns503_WhenNoConnectionPermitIsFree() throws Exception {
+        // given
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setRestaurantId(1L);
+        request.setCustomerName("Busy Customer");
+        request.setCustomerPhone("000");
+        request.setCustomerEmail("busy@example.com");
+        request.setTableCount(1);
+        request.setStartsAt(OffsetDateTime.now(ZoneOffset.UTC).plusDays(2).withNano(0));
+
+        try (Connection held = primaryDataSource.getConnection()) {
+            // when + then
+            mockMvc.perform(post("/reservations")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.message").value("Service is busy, retry later"));
+        }
+    }
+}
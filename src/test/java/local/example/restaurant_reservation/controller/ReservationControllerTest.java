@@ -2,29 +2,44 @@ package local.example.restaurant_reservation.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import local.example.restaurant_reservation.dto.BatchReservationResultDto;
+import local.example.restaurant_reservation.dto.BookingRequestStatusDto;
 import local.example.restaurant_reservation.dto.ReservationRequestDto;
 import local.example.restaurant_reservation.dto.ReservationResponseDto;
 import local.example.restaurant_reservation.dto.ReservationStatusUpdateRequestDto;
 import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.service.BookingPipeline;
+import local.example.restaurant_reservation.service.IdempotencyService;
 import local.example.restaurant_reservation.service.ReservationService;
 import net.datafaker.Faker;
 
@@ -42,6 +57,12 @@ class ReservationControllerTest {
         @MockitoBean
         private ReservationService reservationService;
 
+        @MockitoBean
+        private BookingPipeline bookingPipeline;
+
+        @MockitoBean
+        private IdempotencyService idempotencyService;
+
         private ReservationResponseDto reservation;
         private String customerName;
         private String customerPhone;
@@ -87,6 +108,102 @@ class ReservationControllerTest {
                                 .andExpect(jsonPath("$.restaurantId").value(reservation.getRestaurantId()));
         }
 
+        @Test
+        void createReservation_UsesIdempotencyService_WhenKeyProvided() throws Exception {
+                // given
+                ReservationRequestDto request = new ReservationRequestDto();
+                request.setRestaurantId(1L);
+                request.setCustomerName(customerName);
+                request.setCustomerPhone(customerPhone);
+                request.setCustomerEmail(customerEmail);
+                request.setTableCount(3);
+                request.setStartsAt(reservation.getStartsAt());
+                when(idempotencyService.createReservation(eq("retry-1"), any(ReservationRequestDto.class)))
+                                .thenReturn(reservation);
+                String requestJson = java.util.Objects.requireNonNull(objectMapper.writeValueAsString(request));
+
+                // when
+                mockMvc
+                                .perform(post("/reservations").contentType(MediaType.APPLICATION_JSON_VALUE)
+                                                .header("Idempotency-Key", "retry-1").content(requestJson))
+                                // then
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.id").value(reservation.getId()));
+
+                verify(reservationService, never()).createReservation(any());
+        }
+
+        @Test
+        void submitReservation_Returns202WithTrackingId_WhenAsyncPreferred() throws Exception {
+                // given
+                ReservationRequestDto request = new ReservationRequestDto();
+                request.setRestaurantId(1L);
+                request.setCustomerName(customerName);
+                request.setCustomerPhone(customerPhone);
+                request.setCustomerEmail(customerEmail);
+                request.setTableCount(3);
+                request.setStartsAt(reservation.getStartsAt());
+                UUID trackingId = UUID.randomUUID();
+                when(bookingPipeline.submit(any(ReservationRequestDto.class))).thenReturn(trackingId);
+                String requestJson = java.util.Objects.requireNonNull(objectMapper.writeValueAsString(request));
+
+                // when
+                mockMvc
+                                .perform(post("/reservations").contentType(MediaType.APPLICATION_JSON_VALUE)
+                                                .header("Prefer", "respond-async").content(requestJson))
+                                // then
+                                .andExpect(status().isAccepted())
+                                .andExpect(header().string("Location", "/reservations/requests/" + trackingId))
+                                .andExpect(jsonPath("$.trackingId").value(trackingId.toString()))
+                                .andExpect(jsonPath("$.status").value("PENDING"));
+
+                verify(reservationService, never()).createReservation(any());
+        }
+
+        @Test
+        void getBookingRequest_ReturnsOutcome_WhenCommitted() throws Exception {
+                // given
+                UUID trackingId = UUID.randomUUID();
+                when(bookingPipeline.getStatus(trackingId)).thenReturn(BookingRequestStatusDto.of(trackingId,
+                                BatchReservationResultDto.succeeded(0, reservation)));
+
+                // when
+                MvcResult result = mockMvc.perform(get("/reservations/requests/{trackingId}", trackingId))
+                                .andExpect(request().asyncStarted()).andReturn();
+                mockMvc.perform(asyncDispatch(result))
+                                // then
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                                .andExpect(jsonPath("$.reservation.id").value(reservation.getId()));
+        }
+
+        @Test
+        void createReservations_ReturnsPerItemResults_WhenBatchValid() throws Exception {
+                // given
+                ReservationRequestDto request = new ReservationRequestDto();
+                request.setRestaurantId(1L);
+                request.setCustomerName(customerName);
+                request.setCustomerPhone(customerPhone);
+                request.setCustomerEmail(customerEmail);
+                request.setTableCount(3);
+                request.setStartsAt(reservation.getStartsAt());
+                when(reservationService.createReservations(any()))
+                                .thenReturn(List.of(BatchReservationResultDto.succeeded(0, reservation),
+                                                BatchReservationResultDto.failed(1, "full")));
+                String requestJson = java.util.Objects
+                                .requireNonNull(objectMapper.writeValueAsString(List.of(request, request)));
+
+                // when
+                mockMvc
+                                .perform(post("/reservations/batch").contentType(MediaType.APPLICATION_JSON_VALUE)
+                                                .content(requestJson))
+                                // then
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].success").value(true))
+                                .andExpect(jsonPath("$[0].reservation.id").value(reservation.getId()))
+                                .andExpect(jsonPath("$[1].success").value(false))
+                                .andExpect(jsonPath("$[1].error").value("full"));
+        }
+
         @Test
         void getReservation_ReturnsDto_WhenExists() throws Exception {
                 // given
@@ -123,6 +240,26 @@ class ReservationControllerTest {
                                 .andExpect(jsonPath("$.status").value(ReservationStatusEnum.CONFIRMED.name()));
         }
 
+        @Test
+        void updateStatus_ReturnsConflict_WhenVersionIsStale() throws Exception {
+                // given
+                ReservationStatusUpdateRequestDto statusRequest = new ReservationStatusUpdateRequestDto();
+                statusRequest.setStatus(ReservationStatusEnum.CANCELLED);
+                statusRequest.setVersion(1L);
+                when(reservationService.updateStatus(eq(reservation.getId()),
+                                any(ReservationStatusUpdateRequestDto.class)))
+                                .thenThrow(new OptimisticLockingFailureException("modified concurrently"));
+
+                // when
+                mockMvc
+                                .perform(post("/reservations/{id}/status", reservation.getId())
+                                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                                .content(objectMapper.writeValueAsString(statusRequest)))
+                                // then
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.message").value("modified concurrently"));
+        }
+
         @Test
         void listReservations_ReturnsFilteredList_WhenDateProvided() throws Exception {
                 // given
@@ -140,4 +277,26 @@ class ReservationControllerTest {
 
                 verify(reservationService).listReservations(reservation.getRestaurantId(), date, 0, 20);
         }
+
+        @Test
+        void exportReservations_StreamsNdjson_WhenRequested() throws Exception {
+                // given
+                doAnswer(invocation -> {
+                        OutputStream out = invocation.getArgument(1);
+                        out.write("{\"id\":10}\n".getBytes(StandardCharsets.UTF_8));
+                        return null;
+                }).when(reservationService).exportReservations(eq(reservation.getRestaurantId()), any());
+
+                // when
+                MvcResult result = mockMvc
+                                .perform(get("/restaurants/{id}/reservations/export", reservation.getRestaurantId()))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                // then
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andExpect(content().string("{\"id\":10}\n"));
+        }
 }
@@ -3,11 +3,13 @@ package local.example.restaurant_reservation.controller;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.time.LocalTime;
@@ -27,6 +29,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import local.example.restaurant_reservation.dto.CursorPage;
 import local.example.restaurant_reservation.dto.RestaurantRequestDto;
 import local.example.restaurant_reservation.dto.RestaurantResponseDto;
 import local.example.restaurant_reservation.service.RestaurantService;
@@ -76,6 +79,21 @@ class RestaurantControllerTest {
         verify(restaurantService).listRestaurants(1, 5);
     }
 
+    @Test
+    void listRestaurants_ReturnsNextCursorHeader_WhenCursorRequested() throws Exception {
+        // given
+        when(restaurantService.listRestaurantsAfter("", 1))
+                .thenReturn(new CursorPage<>(List.of(existing), "next-token"));
+
+        // when
+        mockMvc.perform(get("/restaurants").param("cursor", "").param("size", "1"))
+                // then
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].id").value(existing.getId()))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next-token"));
+
+        verify(restaurantService).listRestaurantsAfter("", 1);
+    }
+
     @Test
     void getRestaurant_ReturnsDto_WhenFound() throws Exception {
         // given
@@ -89,6 +107,19 @@ class RestaurantControllerTest {
                 .andExpect(jsonPath("$.openTime").value("09:00:00"));
     }
 
+    @Test
+    void getRestaurant_Returns304WithoutLoading_WhenETagMatches() throws Exception {
+        // given
+        when(restaurantService.restaurantETag(existing.getId())).thenReturn("\"a-1-7\"");
+
+        // when
+        mockMvc.perform(get("/restaurants/{id}", existing.getId()).header("If-None-Match", "\"a-1-7\""))
+                // then
+                .andExpect(status().isNotModified()).andExpect(header().string("ETag", "\"a-1-7\""));
+
+        verify(restaurantService, never()).getRestaurant(any());
+    }
+
     @Test
     void getRestaurant_Returns404_WhenMissing() throws Exception {
         // given
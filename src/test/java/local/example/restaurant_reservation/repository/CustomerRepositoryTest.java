@@ -52,4 +52,20 @@ class CustomerRepositoryTest {
         // then
         assertThat(found.getEmail()).isEqualTo(mixedCaseEmail.toLowerCase());
     }
+
+    @Test
+    void findOrCreate_ReturnsExistingId_WhenEmailDiffersOnlyInCase() {
+        // given
+        String email = FAKER.internet().emailAddress();
+        Long createdId = repository.findOrCreate(Customer.builder().name(FAKER.name().fullName())
+                .phone(FAKER.phoneNumber().cellPhone()).email(email.toLowerCase()).build());
+
+        // when
+        Long foundId = repository.findOrCreate(Customer.builder().name(FAKER.name().fullName())
+                .phone(FAKER.phoneNumber().cellPhone()).email(email.toUpperCase()).build());
+
+        // then
+        assertThat(foundId).isEqualTo(createdId);
+        assertThat(repository.findById(createdId).getEmail()).isEqualTo(email.toLowerCase());
+    }
 }
@@ -0,0 +1,65 @@
+package local.example.restaurant_reservation.repository;
+
+import local.example.restaurant_reservation.repository.IdempotencyKeyRepository.StoredResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+class IdempotencyKeyRepositoryTest {
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    @Test
+    void claim_ReturnsFalse_WhenKeyAlreadyClaimed() {
+        // given
+        String key = UUID.randomUUID().toString();
+
+        // when
+        boolean first = repository.claim(key, "hash-a");
+        boolean second = repository.claim(key, "hash-b");
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(repository.find(key)).isEqualTo(new StoredResponse("hash-a", null));
+    }
+
+    @Test
+    void complete_StoresResponse_WhenKeyClaimed() {
+        // given
+        String key = UUID.randomUUID().toString();
+        repository.claim(key, "hash-a");
+
+        // when
+        repository.complete(key, "{\"id\":1}");
+
+        // then
+        assertThat(repository.find(key)).isEqualTo(new StoredResponse("hash-a", "{\"id\":1}"));
+        assertThat(repository.find(UUID.randomUUID().toString())).isNull();
+    }
+
+    @Test
+    void deleteBefore_KeepsKey_WhenNewerThanCutoff() {
+        // given
+        String key = UUID.randomUUID().toString();
+        repository.claim(key, "hash-a");
+
+        // when
+        repository.deleteBefore(OffsetDateTime.now(ZoneOffset.UTC).minusHours(1));
+
+        // then
+        assertThat(repository.find(key)).isNotNull();
+    }
+}
@@ -6,11 +6,13 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
@@ -62,6 +64,29 @@ class ReservationRepositoryTest {
     assertThat(repository.findById(saved.getId())).isNotNull();
   }
 
+  @Test
+  void addAll_AssignsIdsAndCreatedAt_WhenBatchInserted() {
+    // given
+    OffsetDateTime startTime = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1)
+        .truncatedTo(ChronoUnit.HOURS);
+    List<Reservation> reservations = List.of(
+        Reservation.builder().restaurantId(restaurantId).customerId(customerId).tableCount(1)
+            .startsAt(startTime).status(ReservationStatusEnum.PENDING).build(),
+        Reservation.builder().restaurantId(restaurantId).customerId(customerId).tableCount(2)
+            .startsAt(startTime).status(ReservationStatusEnum.PENDING).build());
+
+    // when
+    List<Reservation> saved = repository.addAll(reservations);
+
+    // then
+    assertThat(saved).hasSize(2);
+    assertThat(saved).allSatisfy(r -> {
+      assertThat(r.getId()).isNotNull();
+      assertThat(r.getCreatedAt()).isNotNull();
+    });
+    assertThat(repository.findById(saved.get(1).getId()).getTableCount()).isEqualTo(2);
+  }
+
   @Test
   void findById_Throws_WhenMissing() {
     // when + then
@@ -98,6 +123,106 @@ class ReservationRepositoryTest {
     assertThat(result.getFirst().getId()).isEqualTo(target.getId());
   }
 
+  @Test
+  void findByRestaurantAfter_ReturnsRowsPastCursor_WhenCursorGiven() {
+    // given
+    OffsetDateTime startTime = OffsetDateTime.now(ZoneOffset.UTC).plusDays(3)
+        .truncatedTo(ChronoUnit.HOURS);
+    Reservation first = repository.add(Reservation.builder().restaurantId(restaurantId)
+        .customerId(customerId).tableCount(1).startsAt(startTime)
+        .status(ReservationStatusEnum.CONFIRMED).build());
+    Reservation second = repository.add(Reservation.builder().restaurantId(restaurantId)
+        .customerId(customerId).tableCount(1).startsAt(startTime)
+        .status(ReservationStatusEnum.CONFIRMED).build());
+    Reservation third = repository.add(Reservation.builder().restaurantId(restaurantId)
+        .customerId(customerId).tableCount(1).startsAt(startTime.plusHours(1))
+        .status(ReservationStatusEnum.CONFIRMED).build());
+
+    // when
+    List<Reservation> page = repository.findByRestaurantAfter(restaurantId, startTime.minusDays(1),
+        startTime.plusDays(1), first.getStartsAt(), first.getId(), 10);
+
+    // then
+    assertThat(page).extracting(Reservation::getId)
+        .containsExactly(second.getId(), third.getId());
+  }
+
+  @Test
+  void findById_MapsEveryStatus_WhenDatabaseLabelsMatchJavaNames() {
+    // given
+    List<String> labels = jdbcTemplate.getJdbcTemplate().queryForList(
+        "SELECT unnest(enum_range(NULL::reservation_status))::text", String.class);
+    OffsetDateTime startTime = OffsetDateTime.now(ZoneOffset.UTC).plusDays(5)
+        .truncatedTo(ChronoUnit.HOURS);
+
+    // when + then
+    assertThat(labels).containsExactlyInAnyOrder(Arrays.stream(ReservationStatusEnum.values())
+        .map(Enum::name).toArray(String[]::new));
+    for (ReservationStatusEnum status : ReservationStatusEnum.values()) {
+      Reservation saved = repository.add(Reservation.builder().restaurantId(restaurantId)
+          .customerId(customerId).tableCount(1).startsAt(startTime).status(status).build());
+      assertThat(repository.findById(saved.getId()).getStatus()).isEqualTo(status);
+    }
+  }
+
+  @Test
+  void updateStatus_BumpsVersionAndReturnsPreviousStatus_WhenVersionMatches() {
+    // given
+    Reservation saved = repository.add(Reservation.builder().restaurantId(restaurantId)
+        .customerId(customerId).tableCount(2)
+        .startsAt(OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS))
+        .status(ReservationStatusEnum.PENDING).build());
+
+    // when
+    ReservationRepository.StatusChange change =
+        repository.updateStatus(saved.getId(), saved.getVersion(), ReservationStatusEnum.CONFIRMED);
+
+    // then
+    assertThat(change.previousStatus()).isEqualTo(ReservationStatusEnum.PENDING);
+    assertThat(change.updated().getStatus()).isEqualTo(ReservationStatusEnum.CONFIRMED);
+    assertThat(change.updated().getVersion()).isEqualTo(saved.getVersion() + 1);
+    assertThat(change.updated().getTableCount()).isEqualTo(2);
+  }
+
+  @Test
+  void updateStatus_Throws_WhenVersionIsStale() {
+    // given
+    Reservation saved = repository.add(Reservation.builder().restaurantId(restaurantId)
+        .customerId(customerId).tableCount(2)
+        .startsAt(OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS))
+        .status(ReservationStatusEnum.PENDING).build());
+    repository.updateStatus(saved.getId(), saved.getVersion(), ReservationStatusEnum.CONFIRMED);
+
+    // when + then
+    assertThatThrownBy(() -> repository.updateStatus(saved.getId(), saved.getVersion(),
+        ReservationStatusEnum.CANCELLED))
+        .isInstanceOf(OptimisticLockingFailureException.class);
+    assertThatThrownBy(() -> repository.updateStatus(999_999L, 0L,
+        ReservationStatusEnum.CANCELLED))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void updateStatus_AppliesToCurrentVersion_WhenNoVersionGiven() {
+    // given
+    Reservation saved = repository.add(Reservation.builder().restaurantId(restaurantId)
+        .customerId(customerId).tableCount(2)
+        .startsAt(OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS))
+        .status(ReservationStatusEnum.PENDING).build());
+    repository.updateStatus(saved.getId(), saved.getVersion(), ReservationStatusEnum.CONFIRMED);
+
+    // when
+    ReservationRepository.StatusChange change =
+        repository.updateStatus(saved.getId(), null, ReservationStatusEnum.CANCELLED);
+
+    // then
+    assertThat(change.previousStatus()).isEqualTo(ReservationStatusEnum.CONFIRMED);
+    assertThat(change.updated().getVersion()).isEqualTo(saved.getVersion() + 2);
+    assertThatThrownBy(() -> repository.updateStatus(999_999L, null,
+        ReservationStatusEnum.CANCELLED))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   private Long insertRestaurant() {
     MapSqlParameterSource params =
         new MapSqlParameterSource().addValue("name", FAKER.company().name())
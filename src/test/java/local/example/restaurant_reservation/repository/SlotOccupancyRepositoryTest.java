@@ -0,0 +1,98 @@
+package local.example.restaurant_reservation.repository;
+
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository.Occupancy;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+class SlotOccupancyRepositoryTest {
+
+    private static final Faker FAKER = new Faker(new Random(8));
+
+    @Autowired
+    private SlotOccupancyRepository repository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    private Long restaurantId;
+    private OffsetDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        restaurantId = restaurantRepository.add(Restaurant.builder().name(FAKER.company().name())
+                .openTime(LocalTime.of(9, 0)).closeTime(LocalTime.of(22, 0)).totalTables(10).build()).getId();
+        slot = OffsetDateTime.now(ZoneOffset.UTC).plusDays(3).truncatedTo(ChronoUnit.DAYS).plusHours(19);
+    }
+
+    @Test
+    void tryReserve_CountsWholeHour_UntilCapacityReached() {
+        // when
+        boolean first = repository.tryReserve(restaurantId, slot, 6);
+        boolean second = repository.tryReserve(restaurantId, slot.plusMinutes(30), 4);
+        boolean third = repository.tryReserve(restaurantId, slot, 1);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(repository.lock(restaurantId, slot)).isEqualTo(new Occupancy(10, 10));
+    }
+
+    @Test
+    void tryReserve_ReturnsFalse_WhenRestaurantMissingOrTooSmall() {
+        // when + then
+        assertThat(repository.tryReserve(999_999L, slot, 1)).isFalse();
+        assertThat(repository.tryReserve(restaurantId, slot, 11)).isFalse();
+        assertThat(repository.lock(999_999L, slot)).isNull();
+    }
+
+    @Test
+    void findReservedByHour_ReturnsOccupiedSlots_WhenRangeGiven() {
+        // given
+        repository.tryReserve(restaurantId, slot, 2);
+        repository.tryReserve(restaurantId, slot.plusDays(1), 1);
+        repository.tryReserve(restaurantId, slot.plusHours(1), 3);
+        repository.add(restaurantId, slot.plusHours(1), -3);
+        LocalDate date = slot.toLocalDate();
+
+        // when
+        Map<LocalDateTime, Integer> result = repository.findReservedByHour(restaurantId, date, date.plusDays(2));
+
+        // then
+        assertThat(result).containsOnly(
+                Map.entry(slot.toLocalDateTime(), 2),
+                Map.entry(slot.plusDays(1).toLocalDateTime(), 1));
+    }
+
+    @Test
+    void updateCapacity_Throws_WhenSlotHoldsMoreThanNewCapacity() {
+        // given
+        repository.tryReserve(restaurantId, slot, 6);
+
+        // when + then
+        assertThatThrownBy(() -> repository.updateCapacity(restaurantId, 5, slot.minusDays(1)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
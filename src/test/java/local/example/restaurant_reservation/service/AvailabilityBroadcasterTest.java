@@ -0,0 +1,170 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
+import local.example.restaurant_reservation.dto.AvailabilityResponseDto.SlotAvailability;
+import local.example.restaurant_reservation.event.ReservationChangedEvent;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityBroadcasterTest {
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    private AvailabilityBroadcaster broadcaster;
+    private LocalDate date;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new AvailabilityBroadcaster(availabilityService, Runnable::run, Duration.ofMinutes(1), 2);
+        date = LocalDate.now(ZoneOffset.UTC).plusDays(3);
+    }
+
+    @Test
+    void flush_SendsOnlyChangedSlots_WhenDayChanged() {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(1L, date, emitter, availability(5, 5));
+        when(availabilityService.getAvailability(1L, date)).thenReturn(availability(5, 3));
+
+        // when
+        broadcaster.onReservationChanged(changed(1L, 11));
+        broadcaster.flush();
+
+        // then
+        assertThat(emitter.names).containsExactly("snapshot", "delta");
+        assertThat(emitter.payloads.getLast().getSlots()).singleElement()
+                .satisfies(slot -> assertThat(slot.getStartTime()).isEqualTo(LocalTime.of(11, 0)))
+                .satisfies(slot -> assertThat(slot.getAvailableTables()).isEqualTo(3));
+    }
+
+    @Test
+    void flush_LoadsDayOnceForBurst_WhenManySubscribersAndChanges() {
+        // given
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(1L, date, first, availability(5, 5));
+        broadcaster.register(1L, date, second, availability(5, 5));
+        when(availabilityService.getAvailability(1L, date)).thenReturn(availability(5, 5), availability(2, 4));
+        broadcaster.flush();
+
+        // when
+        broadcaster.onReservationChanged(changed(1L, 10));
+        broadcaster.onReservationChanged(changed(1L, 10));
+        broadcaster.onReservationChanged(changed(1L, 11));
+        broadcaster.flush();
+
+        // then
+        verify(availabilityService, times(2)).getAvailability(1L, date);
+        assertThat(first.names).containsExactly("snapshot", "delta");
+        assertThat(second.names).containsExactly("snapshot", "delta");
+        assertThat(first.payloads.getLast().getSlots()).hasSize(2);
+    }
+
+    @Test
+    void flush_SkipsDay_WhenNobodySubscribed() {
+        // when
+        broadcaster.onReservationChanged(changed(1L, 10));
+        broadcaster.onRestaurantChanged(new RestaurantChangedEvent(2L));
+        broadcaster.flush();
+
+        // then
+        verify(availabilityService, never()).getAvailability(1L, date);
+    }
+
+    @Test
+    void flush_SendsSnapshot_WhenOpeningHoursChanged() {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(1L, date, emitter, availability(5, 5));
+        when(availabilityService.getAvailability(1L, date)).thenReturn(availability(5, 5, 5));
+
+        // when
+        broadcaster.onRestaurantChanged(new RestaurantChangedEvent(1L));
+        broadcaster.flush();
+
+        // then
+        assertThat(emitter.names).containsExactly("snapshot", "snapshot");
+    }
+
+    @Test
+    void register_DropsSubscriber_WhenClientIsGone() {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+
+        // when
+        broadcaster.register(1L, date, emitter, availability(5, 5));
+
+        // then
+        assertThat(broadcaster.subscriberCount()).isZero();
+    }
+
+    @Test
+    void register_Throws503_WhenSubscriberLimitReached() {
+        // given
+        broadcaster.register(1L, date, new RecordingEmitter(), availability(5, 5));
+        broadcaster.register(2L, date, new RecordingEmitter(), availability(5, 5));
+
+        // when / then
+        assertThatThrownBy(() -> broadcaster.register(3L, date, new RecordingEmitter(), availability(5, 5)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("503");
+        assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+    }
+
+    private ReservationChangedEvent changed(Long restaurantId, int hour) {
+        return new ReservationChangedEvent(restaurantId, date.atTime(hour, 0).atOffset(ZoneOffset.UTC));
+    }
+
+    // Free tables per hour starting at 10:00
+    private AvailabilityResponseDto availability(int... freeTables) {
+        List<SlotAvailability> slots = new ArrayList<>();
+        for (int i = 0; i < freeTables.length; i++) {
+            slots.add(SlotAvailability.builder().startTime(LocalTime.of(10 + i, 0))
+                    .availableTables(freeTables[i]).build());
+        }
+        return AvailabilityResponseDto.builder().restaurantId(1L).date(date).slots(slots).build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<AvailabilityResponseDto> payloads = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            List<DataWithMediaType> parts = List.copyOf(builder.build());
+            names.add(parts.getFirst().getData().toString().lines().findFirst().orElseThrow()
+                    .substring("event:".length()));
+            payloads.add((AvailabilityResponseDto) parts.get(1).getData());
+        }
+    }
+}
@@ -1,30 +1,43 @@
 package local.example.restaurant_reservation.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import net.datafaker.Faker;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.cache.AvailabilityCache;
+import local.example.restaurant_reservation.cache.AvailabilitySearchIndex;
+import local.example.restaurant_reservation.cache.PrimaryReads;
+import local.example.restaurant_reservation.cache.RestaurantCache;
 import local.example.restaurant_reservation.dto.AvailabilityResponseDto;
-import local.example.restaurant_reservation.model.Reservation;
-import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.dto.AvailableRestaurantDto;
+import local.example.restaurant_reservation.dto.CursorPage;
+import local.example.restaurant_reservation.dto.PageCursor;
 import local.example.restaurant_reservation.model.Restaurant;
-import local.example.restaurant_reservation.repository.ReservationRepository;
-import local.example.restaurant_reservation.repository.RestaurantRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.ResourcelessTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
 
 @ExtendWith(MockitoExtension.class)
 class AvailabilityServiceTest {
@@ -32,18 +45,24 @@ class AvailabilityServiceTest {
         private static final Faker FAKER = new Faker(new Random(6));
 
         @Mock
-        private RestaurantRepository restaurantRepository;
+        private RestaurantCache restaurantCache;
 
         @Mock
-        private ReservationRepository reservationRepository;
+        private SlotOccupancyRepository slotOccupancyRepository;
+
+        @Mock
+        private AvailabilitySearchIndex searchIndex;
+
+        @Spy
+        private AvailabilityCache availabilityCache =
+                        new AvailabilityCache(new PrimaryReads(new ResourcelessTransactionManager()),
+                                        new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
 
         @InjectMocks
         private AvailabilityService availabilityService;
 
         private Restaurant restaurant;
         private LocalDate date;
-        private Reservation reserved;
-        private Reservation cancelled;
 
         @BeforeEach
         void setUp() {
@@ -55,27 +74,14 @@ class AvailabilityServiceTest {
                                 .closeTime(LocalTime.of(14, 0))
                                 .build();
                 date = LocalDate.now().plusDays(1);
-                OffsetDateTime slotTime = date.atTime(10, 0).atOffset(ZoneOffset.UTC);
-                reserved = Reservation.builder()
-                                .restaurantId(restaurant.getId())
-                                .tableCount(4)
-                                .startsAt(slotTime)
-                                .status(ReservationStatusEnum.CONFIRMED)
-                                .build();
-                cancelled = Reservation.builder()
-                                .restaurantId(restaurant.getId())
-                                .tableCount(3)
-                                .startsAt(slotTime)
-                                .status(ReservationStatusEnum.CANCELLED)
-                                .build();
         }
 
         @Test
         void getAvailability_ComputesAvailableTables_WhenReservationsExist() {
                 // given
-                when(restaurantRepository.findById(restaurant.getId())).thenReturn(restaurant);
-                when(reservationRepository.findByRestaurantAndDate(restaurant.getId(), date))
-                                .thenReturn(List.of(reserved, cancelled));
+                when(restaurantCache.get(restaurant.getId())).thenReturn(restaurant);
+                when(slotOccupancyRepository.findReservedByHour(restaurant.getId(), date, date.plusDays(1)))
+                                .thenReturn(Map.of(date.atTime(10, 0), 4));
 
                 // when
                 AvailabilityResponseDto response = availabilityService.getAvailability(restaurant.getId(), date);
@@ -86,6 +92,75 @@ class AvailabilityServiceTest {
                 assertThat(response.getSlots().get(1).getAvailableTables()).isEqualTo(10); // no reservations at 11:00
                 assertThat(response.getRestaurantId()).isEqualTo(restaurant.getId());
                 assertThat(response.getDate()).isEqualTo(date);
-                verify(reservationRepository).findByRestaurantAndDate(restaurant.getId(), date);
+                verify(slotOccupancyRepository).findReservedByHour(restaurant.getId(), date, date.plusDays(1));
+        }
+
+        @Test
+        void getAvailability_ServesCachedResult_WhenRequestedTwice() {
+                // given
+                when(restaurantCache.get(restaurant.getId())).thenReturn(restaurant);
+                when(slotOccupancyRepository.findReservedByHour(restaurant.getId(), date, date.plusDays(1)))
+                                .thenReturn(Map.of());
+
+                // when
+                AvailabilityResponseDto first = availabilityService.getAvailability(restaurant.getId(), date);
+                AvailabilityResponseDto second = availabilityService.getAvailability(restaurant.getId(), date);
+
+                // then
+                assertThat(second).isSameAs(first);
+                verify(slotOccupancyRepository, times(1))
+                                .findReservedByHour(restaurant.getId(), date, date.plusDays(1));
+        }
+
+        @Test
+        void getAvailabilityRange_UsesOneAggregate_WhenRangeRequested() {
+                // given
+                LocalDate to = date.plusDays(13);
+                when(restaurantCache.get(restaurant.getId())).thenReturn(restaurant);
+                when(slotOccupancyRepository.findReservedByHour(restaurant.getId(), date, to.plusDays(1)))
+                                .thenReturn(Map.of(to.atTime(13, 0), 10));
+
+                // when
+                List<AvailabilityResponseDto> response = availabilityService.getAvailability(restaurant.getId(),
+                                date, to);
+
+                // then
+                assertThat(response).hasSize(14);
+                assertThat(response.getLast().getDate()).isEqualTo(to);
+                assertThat(response.getLast().getSlots().getLast().getAvailableTables()).isZero();
+                verify(slotOccupancyRepository, times(1))
+                                .findReservedByHour(restaurant.getId(), date, to.plusDays(1));
+        }
+
+        @Test
+        void getAvailabilityRange_Throws_WhenRangeTooLong() {
+                // when + then
+                assertThatThrownBy(() -> availabilityService.getAvailability(restaurant.getId(), date,
+                                date.plusDays(AvailabilityService.MAX_RANGE_DAYS)))
+                                .isInstanceOf(ResponseStatusException.class);
+        }
+
+        @Test
+        void searchAvailableRestaurants_ReturnsPageWithCursor_WhenMoreEntriesExist() {
+                // given
+                OffsetDateTime startsAt = date.atTime(12, 30).atOffset(ZoneOffset.UTC);
+                var slot = startsAt.toInstant().truncatedTo(ChronoUnit.HOURS);
+                when(searchIndex.search(slot, 2, null, 2)).thenReturn(List.of(
+                                new AvailabilitySearchIndex.Entry(8, restaurant.getId()),
+                                new AvailabilitySearchIndex.Entry(3, 7L)));
+                when(restaurantCache.get(restaurant.getId())).thenReturn(restaurant);
+
+                // when
+                CursorPage<AvailableRestaurantDto> page = availabilityService.searchAvailableRestaurants(startsAt, 2,
+                                null, 1);
+
+                // then
+                assertThat(page.items()).singleElement().satisfies(dto -> {
+                        assertThat(dto.getRestaurantId()).isEqualTo(restaurant.getId());
+                        assertThat(dto.getName()).isEqualTo(restaurant.getName());
+                        assertThat(dto.getAvailableTables()).isEqualTo(8);
+                });
+                assertThat(PageCursor.decode(page.nextCursor()))
+                                .isEqualTo(new PageCursor("8", restaurant.getId()));
         }
 }
@@ -0,0 +1,56 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+class BookingMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BookingMetrics bookingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingMetrics = new BookingMetrics(meterRegistry, 2);
+    }
+
+    @Test
+    void time_TagsOverflowRestaurantsAsOther_WhenLimitReached() {
+        // when
+        for (long restaurantId = 1; restaurantId <= 5; restaurantId++) {
+            bookingMetrics.admitted(restaurantId);
+            bookingMetrics.time("insert", restaurantId, () -> "ok");
+        }
+
+        // then
+        assertThat(meterRegistry.find("reservation.booking.phase").timers())
+                .extracting(timer -> timer.getId().getTag("restaurant"))
+                .containsExactlyInAnyOrder("1", "2", BookingMetrics.OTHER);
+        assertThat(meterRegistry.get("reservation.booking.phase").tag("restaurant", BookingMetrics.OTHER)
+                .timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void time_TagsRestaurantAsOther_UntilBookingAdmitted() {
+        // when
+        assertThatThrownBy(() -> bookingMetrics.time("capacity", 99L, () -> {
+            throw new EmptyResultDataAccessException(1);
+        })).isInstanceOf(EmptyResultDataAccessException.class);
+        bookingMetrics.time("capacity", 2L, () -> true);
+        bookingMetrics.admitted(2L);
+        bookingMetrics.time("insert", 2L, () -> "ok");
+
+        // then
+        assertThat(meterRegistry.find("reservation.booking.phase").tag("restaurant", "99").timer()).isNull();
+        assertThat(meterRegistry.get("reservation.booking.phase").tag("phase", "capacity")
+                .tag("restaurant", BookingMetrics.OTHER).timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("reservation.booking.phase").tag("restaurant", "2").timer().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,228 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import local.example.restaurant_reservation.dto.BatchReservationResultDto;
+import local.example.restaurant_reservation.dto.BookingRequestStatusDto;
+import local.example.restaurant_reservation.dto.BookingRequestStatusDto.Status;
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import local.example.restaurant_reservation.dto.ReservationResponseDto;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPipelineTest {
+
+    private static final Faker FAKER = new Faker(new Random(11));
+
+    @Mock
+    private ReservationService reservationService;
+
+    // Drains run when the test says so, which lets requests pile up first
+    private final Queue<Runnable> drains = new ArrayDeque<>();
+
+    private BookingPipeline pipeline;
+    private OffsetDateTime startsAt;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new BookingPipeline(reservationService, drains::add, 2, 5, 1, Duration.ofMinutes(1));
+        startsAt = OffsetDateTime.now(ZoneOffset.UTC).plusDays(2).withHour(19).withMinute(0);
+    }
+
+    @Test
+    void submit_CommitsQueuedRequestsInBatches_WhenSameSlot() {
+        // given
+        when(reservationService.createReservations(anyList())).thenAnswer(invocation -> {
+            List<ReservationRequestDto> batch = invocation.getArgument(0);
+            return batch.stream().map(request -> BatchReservationResultDto.succeeded(0, reservation())).toList();
+        });
+        pipeline.submit(request(1L, startsAt));
+        pipeline.submit(request(1L, startsAt.plusMinutes(15)));
+        pipeline.submit(request(1L, startsAt.plusMinutes(30)));
+
+        // when
+        runDrains();
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReservationRequestDto>> batches = ArgumentCaptor.forClass(List.class);
+        verify(reservationService, times(2)).createReservations(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(batches.getAllValues().getFirst()).extracting(ReservationRequestDto::getStartsAt)
+                .containsExactly(startsAt, startsAt.plusMinutes(15));
+    }
+
+    @Test
+    void submit_UsesSeparateQueues_WhenSlotsDiffer() {
+        // given
+        when(reservationService.createReservations(anyList()))
+                .thenReturn(List.of(BatchReservationResultDto.succeeded(0, reservation())));
+        pipeline.submit(request(1L, startsAt));
+        pipeline.submit(request(1L, startsAt.plusHours(1)));
+        pipeline.submit(request(2L, startsAt));
+
+        // when
+        runDrains();
+
+        // then
+        verify(reservationService, times(3)).createReservations(anyList());
+    }
+
+    @Test
+    void getStatus_ReportsOutcome_WhenBatchCommitted() {
+        // given
+        when(reservationService.createReservations(anyList())).thenReturn(List.of(
+                BatchReservationResultDto.succeeded(0, reservation()),
+                BatchReservationResultDto.failed(1, "Not enough tables")));
+        UUID admitted = pipeline.submit(request(1L, startsAt));
+        UUID rejected = pipeline.submit(request(1L, startsAt));
+        assertThat(pipeline.getStatus(admitted).getStatus()).isEqualTo(Status.PENDING);
+
+        // when
+        runDrains();
+
+        // then
+        BookingRequestStatusDto confirmed = pipeline.getStatus(admitted);
+        assertThat(confirmed.getStatus()).isEqualTo(Status.CONFIRMED);
+        assertThat(confirmed.getReservation().getId()).isEqualTo(10L);
+        assertThat(pipeline.getStatus(rejected).getStatus()).isEqualTo(Status.REJECTED);
+        assertThat(pipeline.getStatus(rejected).getError()).isEqualTo("Not enough tables");
+    }
+
+    @Test
+    void getStatus_ReportsFailed_WhenBatchThrows() {
+        // given
+        when(reservationService.createReservations(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        UUID trackingId = pipeline.submit(request(1L, startsAt));
+        var awaited = pipeline.awaitStatus(trackingId, Duration.ofSeconds(10));
+
+        // when
+        runDrains();
+
+        // then
+        BookingRequestStatusDto status = pipeline.getStatus(trackingId);
+        assertThat(status.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(status.getError()).doesNotContain("timeout");
+        assertThat(awaited.join().getStatus()).isEqualTo(Status.FAILED);
+    }
+
+    @Test
+    void submit_CommitsOneBatchAtATime_WhenDrainsLimitedToOne() throws Exception {
+        // given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch firstEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reservationService.createReservations(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            firstEntered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            inFlight.decrementAndGet();
+            return List.of(BatchReservationResultDto.succeeded(0, reservation()));
+        });
+        try (ExecutorService worker = Executors.newVirtualThreadPerTaskExecutor()) {
+            BookingPipeline concurrent = new BookingPipeline(reservationService, worker, 2, 5, 1, Duration.ofMinutes(1));
+            UUID first = concurrent.submit(request(1L, startsAt));
+            UUID second = concurrent.submit(request(2L, startsAt));
+
+            // when
+            assertThat(firstEntered.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            release.countDown();
+
+            // then
+            assertThat(concurrent.awaitStatus(first, Duration.ofSeconds(10)).join().getStatus())
+                    .isEqualTo(Status.CONFIRMED);
+            assertThat(concurrent.awaitStatus(second, Duration.ofSeconds(10)).join().getStatus())
+                    .isEqualTo(Status.CONFIRMED);
+        }
+        assertThat(maxInFlight).hasValue(1);
+    }
+
+    @Test
+    void awaitStatus_CompletesWithOutcome_WhenBatchCommitsLater() {
+        // given
+        when(reservationService.createReservations(anyList()))
+                .thenReturn(List.of(BatchReservationResultDto.succeeded(0, reservation())));
+        UUID trackingId = pipeline.submit(request(1L, startsAt));
+        var status = pipeline.awaitStatus(trackingId, Duration.ofSeconds(10));
+        assertThat(status).isNotDone();
+
+        // when
+        runDrains();
+
+        // then
+        assertThat(status.join().getStatus()).isEqualTo(Status.CONFIRMED);
+    }
+
+    @Test
+    void getStatus_Throws404_WhenTrackingIdUnknown() {
+        assertThatThrownBy(() -> pipeline.getStatus(UUID.randomUUID()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("404");
+    }
+
+    @Test
+    void submit_Throws503_WhenQueueFull() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(request(1L, startsAt));
+        }
+
+        // when / then
+        assertThatThrownBy(() -> pipeline.submit(request(1L, startsAt)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("503");
+    }
+
+    private void runDrains() {
+        Runnable drain;
+        while ((drain = drains.poll()) != null) {
+            drain.run();
+        }
+    }
+
+    private static ReservationRequestDto request(Long restaurantId, OffsetDateTime startsAt) {
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setRestaurantId(restaurantId);
+        request.setCustomerName(FAKER.name().fullName());
+        request.setCustomerPhone(FAKER.phoneNumber().cellPhone());
+        request.setCustomerEmail(FAKER.internet().emailAddress());
+        request.setTableCount(1);
+        request.setStartsAt(startsAt);
+        return request;
+    }
+
+    private static ReservationResponseDto reservation() {
+        ReservationResponseDto reservation = new ReservationResponseDto();
+        reservation.setId(10L);
+        return reservation;
+    }
+}
@@ -0,0 +1,155 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Guards the number of SQL statements a single booking costs
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+@Import(BookingStatementCountTest.StatementCountingConfig.class)
+class BookingStatementCountTest {
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private Restaurant restaurant;
+    private String customerPhone;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.add(Restaurant.builder().name("Statement Count").address("Main St 1")
+                .phone("000").openTime(LocalTime.of(9, 0)).closeTime(LocalTime.of(22, 0)).totalTables(10).build());
+        customerPhone = UUID.randomUUID().toString();
+    }
+
+    // Only needed for tests that commit; inside the test transaction it is rolled back anyway
+    @AfterEach
+    void tearDown() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("restaurantId", restaurant.getId())
+                .addValue("phone", customerPhone);
+        jdbcTemplate.update("DELETE FROM reservation WHERE restaurant_id = :restaurantId", params);
+        jdbcTemplate.update("DELETE FROM customer WHERE phone = :phone", params);
+        jdbcTemplate.update("DELETE FROM restaurant WHERE id = :restaurantId", params);
+    }
+
+    @Test
+    void createReservation_UsesThreeStatements_WhenCustomerIsNew() {
+        // given
+        ReservationRequestDto request = request(UUID.randomUUID() + "@example.com");
+        STATEMENTS.set(0);
+
+        // when
+        reservationService.createReservation(request);
+
+        // then
+        // upsert customer, take the slot's capacity, insert reservation
+        assertThat(STATEMENTS).hasValue(3);
+    }
+
+    // Customer ids are cached only once the booking that resolved them commits, so both bookings
+    // here run in their own committed transactions
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void createReservation_UsesTwoStatements_WhenCustomerKnown() {
+        // given
+        String email = UUID.randomUUID() + "@example.com";
+        reservationService.createReservation(request(email));
+        STATEMENTS.set(0);
+
+        // when
+        reservationService.createReservation(request(email));
+
+        // then
+        // take the slot's capacity, insert reservation; the customer id comes from the cache
+        assertThat(STATEMENTS).hasValue(2);
+    }
+
+    private ReservationRequestDto request(String email) {
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setRestaurantId(restaurant.getId());
+        request.setCustomerName("Statement Count");
+        request.setCustomerPhone(customerPhone);
+        request.setCustomerEmail(email);
+        request.setTableCount(1);
+        request.setStartsAt(OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS));
+        return request;
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    // Only the application DataSource, not the pools behind it
+                    if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                        return new DelegatingDataSource(dataSource) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return counting(super.getConnection());
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            STATEMENTS.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+}
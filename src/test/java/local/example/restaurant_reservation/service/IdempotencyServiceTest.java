@@ -0,0 +1,149 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.cache.IdempotencyCache;
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import local.example.restaurant_reservation.dto.ReservationResponseDto;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.repository.IdempotencyKeyRepository;
+import local.example.restaurant_reservation.repository.IdempotencyKeyRepository.StoredResponse;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Faker FAKER = new Faker(new Random(12));
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private IdempotencyService idempotencyService;
+    private ReservationRequestDto request;
+    private ReservationResponseDto reservation;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(reservationService, idempotencyKeyRepository,
+                new IdempotencyCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)), objectMapper,
+                transactionManager, Duration.ofHours(24));
+        OffsetDateTime startsAt = OffsetDateTime.now(ZoneOffset.UTC).plusDays(5).withNano(0);
+        request = new ReservationRequestDto();
+        request.setRestaurantId(1L);
+        request.setCustomerName(FAKER.name().fullName());
+        request.setCustomerPhone(FAKER.phoneNumber().cellPhone());
+        request.setCustomerEmail(FAKER.internet().emailAddress());
+        request.setTableCount(2);
+        request.setStartsAt(startsAt);
+        reservation = new ReservationResponseDto();
+        reservation.setId(10L);
+        reservation.setRestaurantId(1L);
+        reservation.setTableCount(2);
+        reservation.setStartsAt(startsAt);
+        reservation.setStatus(ReservationStatusEnum.PENDING);
+    }
+
+    @Test
+    void createReservation_BooksOnceAndStoresResponse_WhenKeyIsNew() {
+        // given
+        when(idempotencyKeyRepository.claim(eq("key-1"), anyString())).thenReturn(true);
+        when(reservationService.createReservation(request)).thenReturn(reservation);
+
+        // when
+        ReservationResponseDto first = idempotencyService.createReservation("key-1", request);
+        ReservationResponseDto retry = idempotencyService.createReservation("key-1", request);
+
+        // then
+        assertThat(first.getId()).isEqualTo(10L);
+        assertThat(retry).isSameAs(first);
+        verify(reservationService, times(1)).createReservation(request);
+        verify(idempotencyKeyRepository, times(1)).claim(eq("key-1"), anyString());
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyKeyRepository).complete(eq("key-1"), stored.capture());
+        assertThat(stored.getValue()).contains("\"id\":10");
+    }
+
+    @Test
+    void createReservation_ReplaysStoredResponse_WhenKeyWasUsedElsewhere() throws Exception {
+        // given
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyKeyRepository.claim(eq("key-2"), hash.capture())).thenReturn(false);
+        when(idempotencyKeyRepository.find("key-2")).thenAnswer(invocation -> new StoredResponse(
+                hash.getValue(), objectMapper.writeValueAsString(reservation)));
+
+        // when
+        ReservationResponseDto replayed = idempotencyService.createReservation("key-2", request);
+
+        // then
+        assertThat(replayed.getId()).isEqualTo(10L);
+        assertThat(replayed.getStartsAt()).isEqualTo(reservation.getStartsAt());
+        verify(reservationService, never()).createReservation(any());
+        verify(idempotencyKeyRepository, never()).complete(anyString(), anyString());
+    }
+
+    @Test
+    void createReservation_Throws422_WhenKeyReusedForDifferentRequest() {
+        // given
+        when(idempotencyKeyRepository.claim(eq("key-3"), anyString())).thenReturn(true);
+        when(reservationService.createReservation(request)).thenReturn(reservation);
+        idempotencyService.createReservation("key-3", request);
+        request.setTableCount(4);
+
+        // when / then
+        assertThatThrownBy(() -> idempotencyService.createReservation("key-3", request))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("422");
+    }
+
+    @Test
+    void createReservation_LeavesKeyFree_WhenBookingFails() {
+        // given
+        when(idempotencyKeyRepository.claim(eq("key-4"), anyString())).thenReturn(true);
+        when(reservationService.createReservation(request))
+                .thenThrow(new IllegalStateException("Not enough tables"))
+                .thenReturn(reservation);
+
+        // when
+        assertThatThrownBy(() -> idempotencyService.createReservation("key-4", request))
+                .isInstanceOf(IllegalStateException.class);
+        ReservationResponseDto retry = idempotencyService.createReservation("key-4", request);
+
+        // then
+        assertThat(retry.getId()).isEqualTo(10L);
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -0,0 +1,117 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Random;
+
+import local.example.restaurant_reservation.model.Customer;
+import local.example.restaurant_reservation.model.Reservation;
+import local.example.restaurant_reservation.model.ReservationStatusEnum;
+import local.example.restaurant_reservation.model.Restaurant;
+import local.example.restaurant_reservation.repository.CustomerRepository;
+import local.example.restaurant_reservation.repository.ReservationPartitionRepository;
+import local.example.restaurant_reservation.repository.ReservationRepository;
+import local.example.restaurant_reservation.repository.RestaurantRepository;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+// The DDL runs in the test transaction and is rolled back with it
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+class ReservationPartitionMaintenanceTest {
+
+    private static final Faker FAKER = new Faker(new Random(9));
+
+    @Autowired
+    private ReservationPartitionMaintenance maintenance;
+
+    @Autowired
+    private ReservationPartitionRepository partitionRepository;
+
+    @Autowired
+    private ReservationWindow reservationWindow;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintain_CreatesEveryMonthInWindow_WhenApplicationStarts() {
+        // then
+        assertThat(partitionRepository.findMonths())
+                .contains(reservationWindow.currentMonth(), reservationWindow.lastMonth());
+    }
+
+    @Test
+    void maintain_MovesMonthToArchiveSchema_WhenPastRetention() {
+        // given
+        YearMonth expired = reservationWindow.firstRetainedMonth().minusMonths(1);
+        partitionRepository.createMonth(expired);
+
+        // when
+        maintenance.maintain();
+
+        // then
+        assertThat(partitionRepository.findMonths()).doesNotContain(expired)
+                .contains(reservationWindow.currentMonth());
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_tables WHERE schemaname = :schema AND tablename = :name
+                """, new MapSqlParameterSource()
+                .addValue("schema", ReservationPartitionRepository.ARCHIVE_SCHEMA)
+                .addValue("name", ReservationPartitionRepository.partitionName(expired)), Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void createMonth_MovesRowsOutOfDefaultPartition_WhenMonthWasMissing() {
+        // given
+        YearMonth month = reservationWindow.lastMonth().plusMonths(2);
+        Reservation saved = reservationRepository.add(Reservation.builder()
+                .restaurantId(insertRestaurant())
+                .customerId(insertCustomer())
+                .tableCount(1)
+                .startsAt(ReservationWindow.monthStart(month).plusDays(3).plusHours(19))
+                .status(ReservationStatusEnum.PENDING)
+                .build());
+        assertThat(partitionOf(saved)).isEqualTo("reservation_default");
+
+        // when
+        partitionRepository.createMonth(month);
+
+        // then
+        assertThat(partitionOf(saved)).isEqualTo(ReservationPartitionRepository.partitionName(month));
+        assertThat(reservationRepository.findById(saved.getId()).getStartsAt()).isEqualTo(saved.getStartsAt());
+    }
+
+    private String partitionOf(Reservation reservation) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM reservation WHERE id = :id",
+                new MapSqlParameterSource("id", reservation.getId()), String.class);
+    }
+
+    private Long insertRestaurant() {
+        return restaurantRepository.add(Restaurant.builder().name(FAKER.company().name())
+                .openTime(LocalTime.of(9, 0)).closeTime(LocalTime.of(22, 0)).totalTables(10).build()).getId();
+    }
+
+    private Long insertCustomer() {
+        return customerRepository.add(Customer.builder().name(FAKER.name().fullName())
+                .phone(FAKER.phoneNumber().cellPhone()).email(FAKER.internet().emailAddress()).build()).getId();
+    }
+}
@@ -1,5 +1,10 @@
 package local.example.restaurant_reservation.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import local.example.restaurant_reservation.cache.CustomerIdCache;
+import local.example.restaurant_reservation.dto.BatchReservationResultDto;
 import local.example.restaurant_reservation.dto.ReservationRequestDto;
 import local.example.restaurant_reservation.dto.ReservationResponseDto;
 import local.example.restaurant_reservation.dto.ReservationStatusUpdateRequestDto;
@@ -7,27 +12,40 @@ import local.example.restaurant_reservation.model.Customer;
 import local.example.restaurant_reservation.model.Reservation;
 import local.example.restaurant_reservation.model.ReservationStatusEnum;
 import local.example.restaurant_reservation.model.Restaurant;
-import local.example.restaurant_reservation.repository.CustomerRepository;
 import local.example.restaurant_reservation.repository.ReservationRepository;
+import local.example.restaurant_reservation.repository.ReservationRepository.StatusChange;
 import local.example.restaurant_reservation.repository.RestaurantRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository.Occupancy;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,11 +58,31 @@ class ReservationServiceTest {
         private ReservationRepository reservationRepository;
 
         @Mock
-        private CustomerRepository customerRepository;
+        private CustomerIdCache customerIdCache;
 
         @Mock
         private RestaurantRepository restaurantRepository;
 
+        @Mock
+        private SlotOccupancyRepository slotOccupancyRepository;
+
+        @Mock
+        private ApplicationEventPublisher eventPublisher;
+
+        @Mock
+        private PlatformTransactionManager transactionManager;
+
+        @Spy
+        private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        @Spy
+        private BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry, 50);
+
+        @Spy
+        private ReservationWindow reservationWindow = new ReservationWindow(12, 12);
+
         @InjectMocks
         private ReservationService reservationService;
 
@@ -78,12 +116,9 @@ class ReservationServiceTest {
                 requestDto.setTableCount(2);
                 requestDto.setStartsAt(reservation.getStartsAt());
 
-                when(restaurantRepository.findByIdForUpdate(restaurant.getId())).thenReturn(restaurant);
-                when(customerRepository.findByEmail(requestDto.getCustomerEmail()))
-                                .thenThrow(new IllegalArgumentException("missing"));
-                when(customerRepository.add(any(Customer.class))).thenReturn(customer);
-                when(reservationRepository.sumReservedTablesForSlot(restaurant.getId(), reservation.getStartsAt()))
-                                .thenReturn(0);
+                when(customerIdCache.findOrCreate(any(Customer.class))).thenReturn(customer.getId());
+                when(slotOccupancyRepository.tryReserve(restaurant.getId(), reservation.getStartsAt(), 2))
+                                .thenReturn(true);
                 when(reservationRepository.add(any(Reservation.class))).thenReturn(reservation);
 
                 // when
@@ -93,27 +128,145 @@ class ReservationServiceTest {
                 assertThat(response.getId()).isEqualTo(reservation.getId());
                 assertThat(response.getCustomerId()).isEqualTo(customer.getId());
                 assertThat(response.getRestaurantId()).isEqualTo(restaurant.getId());
-                verify(customerRepository).add(any(Customer.class));
+                verify(customerIdCache).findOrCreate(any(Customer.class));
                 verify(reservationRepository).add(any(Reservation.class));
+                verify(restaurantRepository, never()).findById(any());
+        }
+
+        @Test
+        void createReservation_Throws_WhenSlotIsFull() {
+                // given
+                ReservationRequestDto requestDto = new ReservationRequestDto();
+                requestDto.setRestaurantId(restaurant.getId());
+                requestDto.setCustomerEmail(customer.getEmail());
+                requestDto.setTableCount(4);
+                requestDto.setStartsAt(reservation.getStartsAt());
+
+                when(restaurantRepository.findById(restaurant.getId())).thenReturn(restaurant);
+                when(customerIdCache.findOrCreate(any(Customer.class))).thenReturn(customer.getId());
+                when(slotOccupancyRepository.tryReserve(restaurant.getId(), reservation.getStartsAt(), 4))
+                                .thenReturn(false);
+
+                // when + then
+                assertThatThrownBy(() -> reservationService.createReservation(requestDto))
+                                .isInstanceOf(IllegalStateException.class);
+                verify(reservationRepository, never()).add(any(Reservation.class));
+                assertThat(meterRegistry.get("reservation.booking.rejections")
+                                .tag("restaurant", BookingMetrics.OTHER).counter().count())
+                                .isEqualTo(1);
+                assertThat(meterRegistry.find("reservation.booking.errors").counter()).isNull();
+        }
+
+        @Test
+        void createReservation_ThrowsNotFound_WhenRestaurantMissing() {
+                // given
+                ReservationRequestDto requestDto = new ReservationRequestDto();
+                requestDto.setRestaurantId(99L);
+                requestDto.setCustomerEmail(customer.getEmail());
+                requestDto.setTableCount(1);
+                requestDto.setStartsAt(reservation.getStartsAt());
+
+                when(customerIdCache.findOrCreate(any(Customer.class))).thenReturn(customer.getId());
+                when(slotOccupancyRepository.tryReserve(99L, reservation.getStartsAt(), 1)).thenReturn(false);
+                when(restaurantRepository.findById(99L)).thenThrow(new EmptyResultDataAccessException(1));
+
+                // when + then
+                assertThatThrownBy(() -> reservationService.createReservation(requestDto))
+                                .isInstanceOf(EmptyResultDataAccessException.class);
+                verify(reservationRepository, never()).add(any(Reservation.class));
+        }
+
+        @Test
+        void createReservations_ReportsPerItemResult_WhenSlotFillsUp() {
+                // given
+                ReservationRequestDto first = new ReservationRequestDto();
+                first.setRestaurantId(restaurant.getId());
+                first.setCustomerEmail(customer.getEmail());
+                first.setTableCount(6);
+                first.setStartsAt(reservation.getStartsAt());
+                ReservationRequestDto second = new ReservationRequestDto();
+                second.setRestaurantId(restaurant.getId());
+                second.setCustomerEmail(customer.getEmail());
+                second.setTableCount(6);
+                second.setStartsAt(reservation.getStartsAt());
+
+                OffsetDateTime slot = SlotOccupancyRepository.slotStart(reservation.getStartsAt());
+                when(slotOccupancyRepository.lock(restaurant.getId(), slot)).thenReturn(new Occupancy(0, 10));
+                when(customerIdCache.findOrCreate(any(Customer.class))).thenReturn(customer.getId());
+                Reservation saved = reservation.toBuilder().tableCount(6).build();
+                when(reservationRepository.addAll(any())).thenReturn(List.of(saved));
+
+                // when
+                List<BatchReservationResultDto> results = reservationService
+                                .createReservations(List.of(first, second));
+
+                // then
+                assertThat(results).hasSize(2);
+                assertThat(results.get(0).isSuccess()).isTrue();
+                assertThat(results.get(0).getReservation().getId()).isEqualTo(reservation.getId());
+                assertThat(results.get(1).isSuccess()).isFalse();
+                assertThat(results.get(1).getIndex()).isEqualTo(1);
+                verify(slotOccupancyRepository).add(restaurant.getId(), slot, 6);
+                verify(customerIdCache).findOrCreate(any(Customer.class));
         }
 
         @Test
         void updateStatus_SavesStatus_WhenRequestValid() {
                 // given
-                when(reservationRepository.findByIdForUpdate(reservation.getId())).thenReturn(reservation);
                 ReservationStatusUpdateRequestDto statusUpdate = new ReservationStatusUpdateRequestDto();
                 statusUpdate.setStatus(ReservationStatusEnum.CONFIRMED);
-                Reservation confirmed = reservation.toBuilder().status(ReservationStatusEnum.CONFIRMED).build();
-                when(reservationRepository.update(any(Reservation.class))).thenReturn(confirmed);
+                statusUpdate.setVersion(3L);
+                Reservation confirmed = reservation.toBuilder().status(ReservationStatusEnum.CONFIRMED).version(4L)
+                                .build();
+                when(reservationRepository.updateStatus(reservation.getId(), 3L, ReservationStatusEnum.CONFIRMED))
+                                .thenReturn(new StatusChange(reservation.getStatus(), confirmed));
 
                 // when
                 ReservationResponseDto response = reservationService.updateStatus(reservation.getId(), statusUpdate);
 
                 // then
                 assertThat(response.getStatus()).isEqualTo(ReservationStatusEnum.CONFIRMED);
-                ArgumentCaptor<Reservation> captor = ArgumentCaptor.forClass(Reservation.class);
-                verify(reservationRepository).update(captor.capture());
-                assertThat(captor.getValue().getStatus()).isEqualTo(ReservationStatusEnum.CONFIRMED);
+                assertThat(response.getVersion()).isEqualTo(4L);
+                verify(slotOccupancyRepository, never()).add(any(), any(), anyInt());
+                verify(reservationRepository, never()).findById(any());
+        }
+
+        @Test
+        void updateStatus_SkipsVersionCheck_WhenClientSendsNone() {
+                // given
+                ReservationStatusUpdateRequestDto statusUpdate = new ReservationStatusUpdateRequestDto();
+                statusUpdate.setStatus(ReservationStatusEnum.CANCELLED);
+                Reservation cancelled = reservation.toBuilder().status(ReservationStatusEnum.CANCELLED).version(8L)
+                                .build();
+                when(reservationRepository.updateStatus(reservation.getId(), null, ReservationStatusEnum.CANCELLED))
+                                .thenReturn(new StatusChange(reservation.getStatus(), cancelled));
+
+                // when
+                ReservationResponseDto response = reservationService.updateStatus(reservation.getId(), statusUpdate);
+
+                // then
+                assertThat(response.getStatus()).isEqualTo(ReservationStatusEnum.CANCELLED);
+                verify(slotOccupancyRepository).add(restaurant.getId(), reservation.getStartsAt(), -2);
+                verify(reservationRepository, never()).findById(any());
+        }
+
+        @Test
+        void updateStatus_Throws_WhenReinstatedBookingNoLongerFits() {
+                // given
+                ReservationStatusUpdateRequestDto statusUpdate = new ReservationStatusUpdateRequestDto();
+                statusUpdate.setStatus(ReservationStatusEnum.CONFIRMED);
+                statusUpdate.setVersion(5L);
+                Reservation confirmed = reservation.toBuilder().status(ReservationStatusEnum.CONFIRMED).version(6L)
+                                .build();
+                when(reservationRepository.updateStatus(reservation.getId(), 5L, ReservationStatusEnum.CONFIRMED))
+                                .thenReturn(new StatusChange(ReservationStatusEnum.CANCELLED, confirmed));
+                when(slotOccupancyRepository.tryReserve(restaurant.getId(), reservation.getStartsAt(), 2))
+                                .thenReturn(false);
+
+                // when + then
+                assertThatThrownBy(() -> reservationService.updateStatus(reservation.getId(), statusUpdate))
+                                .isInstanceOf(IllegalStateException.class);
+                verify(eventPublisher, never()).publishEvent(any(Object.class));
         }
 
         @Test
@@ -136,7 +289,9 @@ class ReservationServiceTest {
         @Test
         void listReservations_ReturnsAll_WhenDateMissing() {
                 // given
-                when(reservationRepository.findByRestaurant(restaurant.getId(), 0, 20))
+                OffsetDateTime from = reservationWindow.start();
+                OffsetDateTime to = reservationWindow.end();
+                when(reservationRepository.findByRestaurant(restaurant.getId(), from, to, 0, 20))
                                 .thenReturn(List.of(reservation));
 
                 // when
@@ -145,6 +300,28 @@ class ReservationServiceTest {
 
                 // then
                 assertThat(result).hasSize(1);
-                verify(reservationRepository).findByRestaurant(restaurant.getId(), 0, 20);
+                verify(reservationRepository).findByRestaurant(restaurant.getId(), from, to, 0, 20);
+        }
+
+        @Test
+        void exportReservations_WritesOneJsonLinePerRow_WhenStreaming() throws Exception {
+                // given
+                Reservation other = reservation.toBuilder().id(4L).build();
+                doAnswer(invocation -> {
+                        Consumer<Reservation> consumer = invocation.getArgument(1);
+                        consumer.accept(reservation);
+                        consumer.accept(other);
+                        return null;
+                }).when(reservationRepository).streamByRestaurant(eq(restaurant.getId()), any());
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                // when
+                reservationService.exportReservations(restaurant.getId(), out);
+
+                // then
+                List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+                assertThat(lines).hasSize(2);
+                assertThat(objectMapper.readValue(lines.get(1), ReservationResponseDto.class).getId())
+                                .isEqualTo(other.getId());
         }
 }
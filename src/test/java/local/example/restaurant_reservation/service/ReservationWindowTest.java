@@ -0,0 +1,29 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class ReservationWindowTest {
+
+    @Test
+    void window_SpansCurrentMonthToLastPartition_InUtc() {
+        // given
+        Clock clock = Clock.fixed(Instant.parse("2026-12-31T23:30:00Z"), ZoneId.of("Pacific/Auckland"));
+        ReservationWindow window = new ReservationWindow(3, 6, clock);
+
+        // when + then
+        assertThat(window.currentMonth()).isEqualTo(YearMonth.of(2026, 12));
+        assertThat(window.lastMonth()).isEqualTo(YearMonth.of(2027, 3));
+        assertThat(window.firstRetainedMonth()).isEqualTo(YearMonth.of(2026, 6));
+        assertThat(window.start()).isEqualTo(OffsetDateTime.of(2026, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        assertThat(window.end()).isEqualTo(OffsetDateTime.of(2027, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+    }
+}
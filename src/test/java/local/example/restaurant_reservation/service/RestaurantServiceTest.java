@@ -3,7 +3,10 @@ package local.example.restaurant_reservation.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.time.LocalTime;
@@ -17,11 +20,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import local.example.restaurant_reservation.cache.RestaurantCache;
+import local.example.restaurant_reservation.dto.CursorPage;
+import local.example.restaurant_reservation.dto.PageCursor;
 import local.example.restaurant_reservation.dto.RestaurantRequestDto;
 import local.example.restaurant_reservation.dto.RestaurantResponseDto;
+import local.example.restaurant_reservation.event.RestaurantChangedEvent;
 import local.example.restaurant_reservation.model.Restaurant;
 import local.example.restaurant_reservation.repository.RestaurantRepository;
+import local.example.restaurant_reservation.repository.SlotOccupancyRepository;
 import net.datafaker.Faker;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +42,15 @@ class RestaurantServiceTest {
     @Mock
     private RestaurantRepository restaurantRepository;
 
+    @Mock
+    private SlotOccupancyRepository slotOccupancyRepository;
+
+    @Mock
+    private RestaurantCache restaurantCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RestaurantService restaurantService;
 
@@ -61,10 +80,26 @@ class RestaurantServiceTest {
         verify(restaurantRepository).findAll(1, 5);
     }
 
+    @Test
+    void listRestaurantsAfter_SeeksPastCursor_WhenCursorGiven() {
+        // given
+        Restaurant next = existing.toBuilder().id(7L).name("Zeta").build();
+        String cursor = new PageCursor(existing.getName(), existing.getId()).encode();
+        when(restaurantRepository.findAllAfter(existing.getName(), existing.getId(), 2))
+                .thenReturn(List.of(next, next.toBuilder().id(8L).build()));
+
+        // when
+        CursorPage<RestaurantResponseDto> result = restaurantService.listRestaurantsAfter(cursor, 1);
+
+        // then
+        assertThat(result.items()).extracting(RestaurantResponseDto::getId).containsExactly(7L);
+        assertThat(PageCursor.decode(result.nextCursor())).isEqualTo(new PageCursor("Zeta", 7L));
+    }
+
     @Test
     void getRestaurant_ThrowsNotFound_WhenMissing() {
         // given
-        when(restaurantRepository.findById(42L)).thenThrow(new EmptyResultDataAccessException(1));
+        when(restaurantCache.get(42L)).thenThrow(new EmptyResultDataAccessException(1));
 
         // when + then
         assertThatThrownBy(() -> restaurantService.getRestaurant(42L))
@@ -92,12 +127,14 @@ class RestaurantServiceTest {
         // then
         assertThat(response.getId()).isEqualTo(created.getId());
         assertThat(response.getName()).isEqualTo(created.getName());
+        verify(eventPublisher).publishEvent(new RestaurantChangedEvent(created.getId()));
     }
 
     @Test
     void updateRestaurant_ReturnsUpdated_WhenFound() {
         // given
         Restaurant updated = existing.toBuilder().name("Updated Name").totalTables(12).build();
+        when(restaurantRepository.findById(existing.getId())).thenReturn(existing);
         when(restaurantRepository.findByIdForUpdate(existing.getId())).thenReturn(existing);
         when(restaurantRepository.update(existing)).thenReturn(updated);
 
@@ -116,5 +153,48 @@ class RestaurantServiceTest {
         assertThat(response.getName()).isEqualTo("Updated Name");
         assertThat(response.getTotalTables()).isEqualTo(12);
         verify(restaurantRepository).update(existing);
+        verify(slotOccupancyRepository).lockForCapacityChange();
+        verify(slotOccupancyRepository).updateCapacity(eq(existing.getId()), eq(12), any());
+    }
+
+    @Test
+    void updateRestaurant_LeavesSlotsUnlocked_WhenCapacityUnchanged() {
+        // given
+        when(restaurantRepository.findById(existing.getId())).thenReturn(existing);
+        when(restaurantRepository.findByIdForUpdate(existing.getId())).thenReturn(existing);
+        when(restaurantRepository.update(existing)).thenReturn(existing);
+
+        RestaurantRequestDto request = new RestaurantRequestDto();
+        request.setName("Renamed");
+        request.setOpenTime(existing.getOpenTime());
+        request.setCloseTime(existing.getCloseTime());
+        request.setTotalTables(existing.getTotalTables());
+
+        // when
+        restaurantService.updateRestaurant(existing.getId(), request);
+
+        // then
+        verify(slotOccupancyRepository, never()).lockForCapacityChange();
+        verify(slotOccupancyRepository, never()).updateCapacity(any(), anyInt(), any());
+    }
+
+    @Test
+    void updateRestaurant_ThrowsConflict_WhenUpcomingSlotsHoldMoreTables() {
+        // given
+        when(restaurantRepository.findById(existing.getId())).thenReturn(existing);
+        when(restaurantRepository.findByIdForUpdate(existing.getId())).thenReturn(existing);
+        doThrow(new DataIntegrityViolationException("slot_occupancy_check"))
+                .when(slotOccupancyRepository).updateCapacity(eq(existing.getId()), eq(4), any());
+
+        RestaurantRequestDto request = new RestaurantRequestDto();
+        request.setName(existing.getName());
+        request.setOpenTime(existing.getOpenTime());
+        request.setCloseTime(existing.getCloseTime());
+        request.setTotalTables(4);
+
+        // when + then
+        assertThatThrownBy(() -> restaurantService.updateRestaurant(existing.getId(), request))
+                .isInstanceOf(IllegalStateException.class);
+        verify(restaurantRepository, never()).update(any());
     }
 }
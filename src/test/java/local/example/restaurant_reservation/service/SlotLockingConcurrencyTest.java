@@ -0,0 +1,198 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Commits real bookings from many threads; rows are removed after each test
+@SpringBootTest
+@ActiveProfiles("test")
+class SlotLockingConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int TOTAL_TABLES = 10;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private Long restaurantId;
+    private String emailPrefix;
+    private OffsetDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        emailPrefix = "slot-lock-" + UUID.randomUUID() + "-";
+        slot = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.DAYS).plusHours(12);
+        restaurantId = jdbcTemplate.queryForObject("""
+                INSERT INTO restaurant (name, address, phone, open_time, close_time, total_tables)
+                VALUES ('Slot Lock', 'Main St 1', '000', :openTime, :closeTime, :totalTables)
+                RETURNING id
+                """, new MapSqlParameterSource()
+                .addValue("openTime", LocalTime.of(0, 0))
+                .addValue("closeTime", LocalTime.of(23, 59))
+                .addValue("totalTables", TOTAL_TABLES), Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("restaurantId", restaurantId)
+                .addValue("emailPattern", emailPrefix + "%");
+        jdbcTemplate.update("DELETE FROM reservation WHERE restaurant_id = :restaurantId", params);
+        jdbcTemplate.update("DELETE FROM customer WHERE email LIKE :emailPattern", params);
+        jdbcTemplate.update("DELETE FROM restaurant WHERE id = :restaurantId", params);
+    }
+
+    @Test
+    void createReservation_NeverOverbooks_WhenManyThreadsRaceForOneSlot() throws Exception {
+        // when
+        int succeeded = book(200, i -> slot);
+
+        // then
+        Integer reserved = jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(table_count), 0) FROM reservation WHERE restaurant_id = :restaurantId
+                """, new MapSqlParameterSource("restaurantId", restaurantId), Integer.class);
+        Integer occupied = jdbcTemplate.queryForObject("""
+                SELECT reserved_tables FROM slot_occupancy WHERE restaurant_id = :restaurantId
+                """, new MapSqlParameterSource("restaurantId", restaurantId), Integer.class);
+        assertThat(succeeded).isEqualTo(TOTAL_TABLES);
+        assertThat(reserved).isEqualTo(TOTAL_TABLES);
+        assertThat(occupied).isEqualTo(TOTAL_TABLES);
+    }
+
+    @Test
+    void createReservation_NeverOverbooksAnySlot_WhenThreadsSpreadOverSlots() throws Exception {
+        // when
+        int succeeded = book(400, i -> slot.plusHours(i % 4));
+
+        // then
+        List<Integer> reservedPerSlot = jdbcTemplate.queryForList("""
+                SELECT SUM(table_count) FROM reservation WHERE restaurant_id = :restaurantId GROUP BY starts_at
+                """, new MapSqlParameterSource("restaurantId", restaurantId), Integer.class);
+        assertThat(succeeded).isEqualTo(4 * TOTAL_TABLES);
+        assertThat(reservedPerSlot).hasSize(4).containsOnly(TOTAL_TABLES);
+    }
+
+    // Nothing is counted in process, so tables taken through another instance are seen at once
+    @Test
+    void createReservation_HonoursCapacityTakenElsewhere_WhenAnotherInstanceBooked() throws Exception {
+        // given
+        jdbcTemplate.update("""
+                INSERT INTO slot_occupancy (restaurant_id, slot_start, reserved_tables, total_tables)
+                VALUES (:restaurantId, :slotStart, :reserved, :totalTables)
+                """, new MapSqlParameterSource()
+                .addValue("restaurantId", restaurantId)
+                .addValue("slotStart", slot)
+                .addValue("reserved", TOTAL_TABLES - 2)
+                .addValue("totalTables", TOTAL_TABLES));
+
+        // when
+        int succeeded = book(5, i -> slot);
+
+        // then
+        assertThat(succeeded).isEqualTo(2);
+    }
+
+    // Admission reads the slot's counter and never aggregates its reservation rows, so its cost does
+    // not grow with the bookings a slot already holds
+    @Test
+    void createReservation_AdmitsFromSlotCounter_WhenSlotHoldsManyReservationRows() throws Exception {
+        // given
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("restaurantId", restaurantId)
+                .addValue("slotStart", slot)
+                .addValue("phone", UUID.randomUUID().toString())
+                .addValue("email", emailPrefix + "seed@example.com");
+        Long customerId = jdbcTemplate.queryForObject("""
+                INSERT INTO customer (name, phone, email) VALUES ('Seed', :phone, :email) RETURNING id
+                """, params, Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO reservation (restaurant_id, customer_id, table_count, starts_at, status)
+                SELECT :restaurantId, :customerId, 1, :slotStart, CAST('CONFIRMED' AS reservation_status)
+                FROM generate_series(1, :rows)
+                """, params.addValue("customerId", customerId).addValue("rows", 5 * TOTAL_TABLES));
+
+        // when
+        int succeeded = book(3, i -> slot);
+
+        // then
+        assertThat(succeeded).isEqualTo(3);
+    }
+
+    // Bookings on distinct slots no longer queue behind each other; compare with a single hot slot
+    @Test
+    @Tag("benchmark")
+    void compareThroughput_OneSlotVersusManySlots() throws Exception {
+        jdbcTemplate.update("UPDATE restaurant SET total_tables = 1000000 WHERE id = :restaurantId",
+                new MapSqlParameterSource("restaurantId", restaurantId));
+        int requests = 3_000;
+        book(requests, i -> slot.minusDays(1)); // warm-up
+
+        long start = System.nanoTime();
+        book(requests, i -> slot);
+        double oneSlot = requests / ((System.nanoTime() - start) / 1e9);
+        start = System.nanoTime();
+        book(requests, i -> slot.plusHours(1 + i % 12));
+        double manySlots = requests / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("one slot: %.0f bookings/s, 12 slots: %.0f bookings/s%n", oneSlot, manySlots);
+        assertThat(manySlots).isGreaterThan(oneSlot);
+    }
+
+    private int book(int requests, IntFunction<OffsetDateTime> slotFor)
+            throws InterruptedException, ExecutionException {
+        List<Future<Boolean>> futures = new ArrayList<>(requests);
+        String batchId = UUID.randomUUID().toString();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < requests; i++) {
+                ReservationRequestDto request = new ReservationRequestDto();
+                request.setRestaurantId(restaurantId);
+                request.setCustomerName("Slot Lock " + i);
+                request.setCustomerPhone(batchId + "-" + i);
+                request.setCustomerEmail(emailPrefix + batchId + "-" + i + "@example.com");
+                request.setTableCount(1);
+                request.setStartsAt(slotFor.apply(i));
+                futures.add(executor.submit(() -> {
+                    try {
+                        reservationService.createReservation(request);
+                        return true;
+                    } catch (IllegalStateException ex) {
+                        return false;
+                    }
+                }));
+            }
+        }
+        int succeeded = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+}
@@ -0,0 +1,156 @@
+package local.example.restaurant_reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import local.example.restaurant_reservation.dto.ReservationRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Books concurrently over HTTP against a single restaurant so every request queues on its row
+ * lock. Each nested class starts its own server, one with Tomcat's platform thread pool and one
+ * with {@code spring.threads.virtual.enabled=true} and the connection permit gate; compare the
+ * two printed rates. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("test")
+abstract class ThreadModeContentionBenchmark {
+
+    private static final int CONCURRENCY = 1_000;
+    private static final int REQUESTS = 5_000;
+    private static final int ROUNDS = 3;
+
+    @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=false")
+    static class PlatformThreads extends ThreadModeContentionBenchmark {
+    }
+
+    @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=true")
+    static class VirtualThreads extends ThreadModeContentionBenchmark {
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private Long restaurantId;
+    private String emailPrefix;
+
+    @BeforeEach
+    void setUp() {
+        emailPrefix = "bench-" + UUID.randomUUID() + "-";
+        restaurantId = jdbcTemplate.queryForObject("""
+                INSERT INTO restaurant (name, address, phone, open_time, close_time, total_tables)
+                VALUES ('Benchmark', 'Nowhere 1', '000', :openTime, :closeTime, 1000000)
+                RETURNING id
+                """, new MapSqlParameterSource()
+                .addValue("openTime", LocalTime.MIN)
+                .addValue("closeTime", LocalTime.of(23, 59)), Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("restaurantId", restaurantId)
+                .addValue("emailPattern", emailPrefix + "%");
+        jdbcTemplate.update("DELETE FROM reservation WHERE restaurant_id = :restaurantId", params);
+        jdbcTemplate.update("DELETE FROM customer WHERE email LIKE :emailPattern", params);
+        jdbcTemplate.update("DELETE FROM restaurant WHERE id = :restaurantId", params);
+    }
+
+    @Test
+    void measureThroughput_UnderRowLockContention() throws Exception {
+        double rate = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            double roundRate = run("r" + round);
+            // Round 0 warms up the JIT and the pool
+            if (round > 0) {
+                rate += roundRate / ROUNDS;
+            }
+        }
+        System.out.printf("%s threads: %.0f bookings/s%n", virtualThreads ? "virtual" : "platform", rate);
+        assertThat(rate).isPositive();
+    }
+
+    private double run(String runId) throws Exception {
+        OffsetDateTime slot = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        URI uri = URI.create("http://localhost:" + port + "/reservations");
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                ReservationRequestDto request = new ReservationRequestDto();
+                request.setRestaurantId(restaurantId);
+                request.setCustomerName("Benchmark " + i);
+                request.setCustomerPhone(emailPrefix + runId + "-" + i);
+                request.setCustomerEmail(emailPrefix + runId + "-" + i + "@example.com");
+                request.setTableCount(1);
+                request.setStartsAt(slot.plusHours(i % 12));
+                HttpRequest httpRequest = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                        .build();
+                futures.add(clients.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int booked = 0;
+        for (Future<Integer> future : futures) {
+            if (future.get() == 200) {
+                booked++;
+            }
+        }
+        if (booked < REQUESTS) {
+            System.out.printf("%s: %d of %d requests were not booked%n", runId, REQUESTS - booked, REQUESTS);
+        }
+        return booked / seconds;
+    }
+}
@@ -9,6 +9,9 @@ CREATE TABLE IF NOT EXISTS restaurant (
   created_at    TIMESTAMPTZ NOT NULL DEFAULT NOW()
 );
 
+CREATE INDEX IF NOT EXISTS idx_restaurant_name
+  ON restaurant(name, id);
+
 CREATE TABLE IF NOT EXISTS customer (
   id            BIGSERIAL PRIMARY KEY,
   name          VARCHAR(200) NOT NULL,
@@ -27,15 +30,55 @@ CREATE TYPE reservation_status AS ENUM (
 'COMPLETED'
 );
 
+-- Partitioned by UTC month of starts_at. The application creates upcoming monthly partitions
+-- (reservation_yYYYYmMM) and moves old ones to the reservation_archive schema; the default
+-- partition only catches rows outside every monthly partition.
 CREATE TABLE IF NOT EXISTS reservation (
-  id              BIGSERIAL PRIMARY KEY,
+  id              BIGSERIAL,
   restaurant_id   BIGINT NOT NULL REFERENCES restaurant(id),
   customer_id     BIGINT NOT NULL REFERENCES customer(id),
   table_count     INT NOT NULL,
   starts_at       TIMESTAMPTZ NOT NULL,
   status          reservation_status NOT NULL DEFAULT 'PENDING',
-  created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW()
-);
+  created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  version         BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id, starts_at)
+) PARTITION BY RANGE (starts_at);
+
+CREATE TABLE IF NOT EXISTS reservation_default PARTITION OF reservation DEFAULT;
+
+CREATE SCHEMA IF NOT EXISTS reservation_archive;
 
 CREATE INDEX IF NOT EXISTS idx_reservation_starts_at
-  ON reservation(restaurant_id, starts_at);
+  ON reservation(restaurant_id, starts_at, id);
+
+-- Reserved tables per restaurant and UTC hour, kept in step with reservation rows by the
+-- booking transactions. total_tables is copied from the restaurant so the CHECK can cap it.
+CREATE TABLE IF NOT EXISTS slot_occupancy (
+  restaurant_id    BIGINT NOT NULL REFERENCES restaurant(id) ON DELETE CASCADE,
+  slot_start       TIMESTAMPTZ NOT NULL,
+  reserved_tables  INT NOT NULL CHECK (reserved_tables >= 0),
+  total_tables     INT NOT NULL,
+  PRIMARY KEY (restaurant_id, slot_start),
+  CHECK (reserved_tables <= total_tables)
+);
+
+INSERT INTO slot_occupancy (restaurant_id, slot_start, reserved_tables, total_tables)
+SELECT res.restaurant_id, date_trunc('hour', res.starts_at, 'UTC'), SUM(res.table_count), r.total_tables
+FROM reservation res
+JOIN restaurant r ON r.id = res.restaurant_id
+WHERE res.status <> 'CANCELLED'
+GROUP BY res.restaurant_id, date_trunc('hour', res.starts_at, 'UTC'), r.total_tables
+ON CONFLICT (restaurant_id, slot_start) DO NOTHING;
+
+-- Idempotency-Key of each booking created with one, written in the booking's transaction. A
+-- concurrent duplicate blocks on the primary key until the first commits or rolls back.
+CREATE TABLE IF NOT EXISTS idempotency_key (
+  idempotency_key  VARCHAR(255) PRIMARY KEY,
+  request_hash     VARCHAR(64) NOT NULL,
+  response         TEXT,
+  created_at       TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_created_at
+  ON idempotency_key (created_at);